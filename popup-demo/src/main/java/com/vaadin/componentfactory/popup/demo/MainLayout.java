@@ -15,8 +15,17 @@ public class MainLayout extends AppLayout {
         final RouterLink headerAndFooter = new RouterLink("Header and Footer", HeaderAndFooterView.class);
         final RouterLink popupInGrid = new RouterLink("Popup in Grid", PopupGridView.class);
         final RouterLink onboardingDemo = new RouterLink("Onboarding Demo", OnboardingView.class);
+        final RouterLink delegatedPopups = new RouterLink("Delegated popups", DelegatedPopupView.class);
+        final RouterLink coordinatePopups = new RouterLink("Popups at coordinates", CoordinatePopupView.class);
+        final RouterLink focusTrapBenchmark = new RouterLink("Focus trap benchmark",
+                FocusTrapBenchmarkView.class);
+        final RouterLink stressTest = new RouterLink("Stress test", StressView.class);
+        final RouterLink repositionBenchmark = new RouterLink("Repositioning benchmark",
+                RepositionBenchmarkView.class);
 
-        final VerticalLayout menuLayout = new VerticalLayout(basicUsages, headerAndFooter, popupInGrid, onboardingDemo);
+        final VerticalLayout menuLayout = new VerticalLayout(basicUsages, headerAndFooter, popupInGrid, onboardingDemo,
+                delegatedPopups, coordinatePopups, repositionBenchmark,
+                focusTrapBenchmark, stressTest);
         addToDrawer(menuLayout);
         addToNavbar(drawerToggle);
     }
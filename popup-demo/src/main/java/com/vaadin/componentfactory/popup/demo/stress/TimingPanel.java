@@ -0,0 +1,77 @@
+package com.vaadin.componentfactory.popup.demo.stress;
+
+import java.time.Duration;
+
+import com.vaadin.componentfactory.PopupDiagnostics;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.html.Div;
+import com.vaadin.flow.component.html.H4;
+
+/**
+ * Shows the server handling time, the response payload and the number of
+ * live popups of the last actions.
+ * <p>
+ * The handling time is measured on the server from the start of the action
+ * until the response is about to be written. The payload is the size of the
+ * response as seen by the browser, read with the Resource Timing API.
+ */
+public class TimingPanel extends Div {
+
+    private static final int MAX_ROWS = 15;
+
+    private static final String ADD_ROW = "setTimeout(() => {\n" +
+            "  const entries = performance.getEntriesByType('resource')\n" +
+            "      .filter((entry) => entry.name.includes('v-r=uidl'));\n" +
+            "  const last = entries[entries.length - 1];\n" +
+            "  const payload = last ? last.decodedBodySize + ' bytes' : '?';\n" +
+            "  performance.clearResourceTimings();\n" +
+            "  const row = document.createElement('div');\n" +
+            "  row.textContent = `${$0}: ${$1.toFixed(1)} ms, ${payload}, ${$2} popups`;\n" +
+            "  this.insertBefore(row, this.firstChild);\n" +
+            "  while (this.childElementCount > $3) {\n" +
+            "    this.lastChild.remove();\n" +
+            "  }\n" +
+            "});";
+
+    private final Div rows = new Div();
+
+    private String pendingAction;
+
+    public TimingPanel() {
+        add(new H4("Timings"), rows);
+        getStyle().set("font-family", "monospace").set("font-size", "var(--lumo-font-size-s)");
+        setWidth("30rem");
+    }
+
+    /**
+     * Runs the action and shows its timing.
+     *
+     * @param action  the name of the action
+     * @param command the action
+     */
+    public void measure(String action, Runnable command) {
+        record(action);
+        command.run();
+    }
+
+    /**
+     * Shows the timing of the current request, as the given action. Only the
+     * first action recorded in a request is shown.
+     *
+     * @param action the name of the action
+     */
+    public void record(String action) {
+        if (pendingAction != null) {
+            return;
+        }
+        UI ui = UI.getCurrent();
+        long start = System.nanoTime();
+        pendingAction = action;
+        ui.beforeClientResponse(this, context -> {
+            double millis = (System.nanoTime() - start) / 1e6;
+            int popups = PopupDiagnostics.snapshot(ui, Duration.ZERO).getPopups().size();
+            rows.getElement().executeJs(ADD_ROW, pendingAction, millis, popups, MAX_ROWS);
+            pendingAction = null;
+        });
+    }
+}
@@ -0,0 +1,48 @@
+package com.vaadin.componentfactory.popup.demo.views;
+
+import com.vaadin.componentfactory.Popup;
+import com.vaadin.componentfactory.PopupPosition;
+import com.vaadin.componentfactory.PopupVariant;
+import com.vaadin.componentfactory.popup.demo.MainLayout;
+import com.vaadin.flow.component.html.Div;
+import com.vaadin.flow.component.html.H3;
+import com.vaadin.flow.component.html.Paragraph;
+import com.vaadin.flow.component.orderedlayout.VerticalLayout;
+import com.vaadin.flow.router.Route;
+
+@Route(value = "coordinates", layout = MainLayout.class)
+public class CoordinatePopupView extends VerticalLayout {
+
+    private static final int CELL_SIZE = 20;
+
+    public CoordinatePopupView() {
+        add(new H3("Popups at coordinates"));
+
+        add(new Paragraph("The area below stands for a canvas with a hotspot in every " + CELL_SIZE + "px cell. " +
+                "There is no component per hotspot: the popup is opened at the clicked point with showAt."));
+
+        Popup popup = new Popup();
+        popup.setModeless(true);
+        popup.addThemeVariants(PopupVariant.LUMO_POINTER_ARROW);
+        popup.setPosition(PopupPosition.BOTTOM);
+        add(popup);
+
+        Div canvas = new Div();
+        canvas.setWidth("600px");
+        canvas.setHeight("400px");
+        canvas.getStyle()
+                .set("cursor", "crosshair")
+                .set("background-size", CELL_SIZE + "px " + CELL_SIZE + "px")
+                .set("background-image", "linear-gradient(to right, #ddd 1px, transparent 1px), " +
+                        "linear-gradient(to bottom, #ddd 1px, transparent 1px)");
+        canvas.getElement().addEventListener("click", event -> {
+            int column = (int) event.getEventData().getNumber("event.offsetX") / CELL_SIZE;
+            int row = (int) event.getEventData().getNumber("event.offsetY") / CELL_SIZE;
+            popup.setHtmlContent("<p>Hotspot " + row + " / " + column + "</p>");
+            popup.showAt(event.getEventData().getNumber("event.clientX"),
+                    event.getEventData().getNumber("event.clientY"));
+        }).addEventData("event.offsetX").addEventData("event.offsetY")
+                .addEventData("event.clientX").addEventData("event.clientY");
+        add(canvas);
+    }
+}
@@ -0,0 +1,50 @@
+package com.vaadin.componentfactory.popup.demo.views;
+
+import com.vaadin.componentfactory.DelegatedPopupOpener;
+import com.vaadin.componentfactory.Popup;
+import com.vaadin.componentfactory.PopupPosition;
+import com.vaadin.componentfactory.PopupVariant;
+import com.vaadin.componentfactory.popup.demo.MainLayout;
+import com.vaadin.flow.component.html.Div;
+import com.vaadin.flow.component.html.H3;
+import com.vaadin.flow.component.html.Paragraph;
+import com.vaadin.flow.component.html.Span;
+import com.vaadin.flow.component.orderedlayout.VerticalLayout;
+import com.vaadin.flow.router.Route;
+
+@Route(value = "delegated", layout = MainLayout.class)
+public class DelegatedPopupView extends VerticalLayout {
+
+    private static final int ITEM_COUNT = 2000;
+
+    public DelegatedPopupView() {
+        add(new H3("Delegated popups for large containers"));
+
+        add(new Paragraph("The container below has " + ITEM_COUNT + " clickable items. Instead of a Popup or a " +
+                "click listener per item, DelegatedPopupOpener installs a single listener on the container and " +
+                "creates the Popup of the clicked item only when it's needed."));
+
+        Div container = new Div();
+        container.setHeight("400px");
+        container.getStyle().set("overflow", "auto");
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            Span item = new Span("Item " + i);
+            item.getStyle().set("display", "block").set("cursor", "pointer");
+            DelegatedPopupOpener.setKey(item, String.valueOf(i));
+            container.add(item);
+        }
+        add(container);
+
+        new DelegatedPopupOpener<>(container, Integer::valueOf, this::createPopup);
+    }
+
+    private Popup createPopup(Integer item) {
+        Popup popup = new Popup();
+        popup.setModeless(true);
+        popup.addThemeVariants(PopupVariant.LUMO_POINTER_ARROW);
+        popup.setPosition(PopupPosition.END);
+        popup.setHeaderTitle("Item " + item);
+        popup.setHtmlContent("<p>Details of item " + item + "</p>");
+        return popup;
+    }
+}
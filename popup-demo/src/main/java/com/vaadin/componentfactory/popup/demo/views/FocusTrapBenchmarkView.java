@@ -0,0 +1,80 @@
+package com.vaadin.componentfactory.popup.demo.views;
+
+import com.vaadin.componentfactory.Popup;
+import com.vaadin.componentfactory.popup.demo.MainLayout;
+import com.vaadin.flow.component.button.Button;
+import com.vaadin.flow.component.checkbox.Checkbox;
+import com.vaadin.flow.component.formlayout.FormLayout;
+import com.vaadin.flow.component.html.H3;
+import com.vaadin.flow.component.html.Paragraph;
+import com.vaadin.flow.component.html.Span;
+import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
+import com.vaadin.flow.component.orderedlayout.VerticalLayout;
+import com.vaadin.flow.component.textfield.TextField;
+import com.vaadin.flow.router.Route;
+
+@Route(value = "focus-trap-benchmark", layout = MainLayout.class)
+public class FocusTrapBenchmarkView extends VerticalLayout {
+
+    private static final int FIELD_COUNT = 200;
+    private static final int TAB_PRESSES = 400;
+
+    // Presses Tab on the focused element of the open popup and measures the
+    // time the focus trap needs to handle each key press.
+    private static final String BENCHMARK = "const popup = this;\n" +
+            "popup.$.popupOverlay.querySelector('input').focus();\n" +
+            "const times = [];\n" +
+            "for (let i = 0; i < $0; i++) {\n" +
+            "  let active = document.activeElement;\n" +
+            "  while (active.shadowRoot && active.shadowRoot.activeElement) {\n" +
+            "    active = active.shadowRoot.activeElement;\n" +
+            "  }\n" +
+            "  const start = performance.now();\n" +
+            "  active.dispatchEvent(new KeyboardEvent('keydown',\n" +
+            "      { key: 'Tab', code: 'Tab', keyCode: 9, bubbles: true, composed: true, cancelable: true }));\n" +
+            "  times.push(performance.now() - start);\n" +
+            "}\n" +
+            "times.sort((a, b) => a - b);\n" +
+            "const mean = times.reduce((a, b) => a + b, 0) / times.length;\n" +
+            "return `mean ${mean.toFixed(3)} ms, p95 ${times[Math.floor(times.length * 0.95)].toFixed(3)} ms ` +\n" +
+            "    `per Tab over ${times.length} presses`;";
+
+    public FocusTrapBenchmarkView() {
+        add(new H3("Focus trap benchmark"));
+
+        add(new Paragraph("The popup below contains a form with " + FIELD_COUNT + " fields and traps the focus. " +
+                "The benchmark presses Tab " + TAB_PRESSES + " times in the browser and measures how long the focus " +
+                "trap takes per key press, with and without caching the tabbable elements."));
+
+        Button target = new Button("Open form popup");
+        target.setId("focus-trap-target");
+
+        Popup popup = new Popup();
+        popup.setFor(target.getId().orElse(null));
+        popup.setFocusTrap(true);
+        // modeless, so the popup stays open when the benchmark is started
+        popup.setModeless(true);
+        FormLayout form = new FormLayout();
+        for (int i = 0; i < FIELD_COUNT; i++) {
+            form.add(new TextField("Field " + (i + 1)));
+        }
+        form.setMaxHeight("30rem");
+        form.setWidth("40rem");
+        form.getStyle().set("overflow", "auto");
+        popup.add(form);
+
+        Checkbox caching = new Checkbox("Cache tabbable elements");
+        caching.addValueChangeListener(event -> popup.setFocusTrapCaching(event.getValue()));
+
+        Span result = new Span();
+        Button run = new Button("Run benchmark", event -> {
+            if (!popup.isOpened()) {
+                result.setText("Open the popup first");
+                return;
+            }
+            popup.getElement().executeJs(BENCHMARK, TAB_PRESSES).then(String.class, result::setText);
+        });
+
+        add(new HorizontalLayout(target, caching, run), result, popup);
+    }
+}
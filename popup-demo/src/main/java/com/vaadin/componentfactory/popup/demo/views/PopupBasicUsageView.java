@@ -2,6 +2,7 @@ package com.vaadin.componentfactory.popup.demo.views;
 
 import com.vaadin.componentfactory.Popup;
 import com.vaadin.componentfactory.PopupAlignment;
+import com.vaadin.componentfactory.PopupGroup;
 import com.vaadin.componentfactory.PopupPosition;
 import com.vaadin.componentfactory.PopupVariant;
 import com.vaadin.componentfactory.popup.demo.MainLayout;
@@ -106,9 +107,30 @@ public class PopupBasicUsageView extends HorizontalLayout {
         popup.setFor(TEST_TARGET_ELEMENT_ID);
         layout.add(popup);
 
+        layout.add(createToolbarExample());
+
         return layout;
     }
 
+    private Component createToolbarExample() {
+        HorizontalLayout toolbar = new HorizontalLayout();
+        toolbar.getStyle().set("margin-top", "4rem");
+
+        // only one popup of the toolbar is open at a time, enforced in the browser
+        PopupGroup group = new PopupGroup();
+        for (String menu : new String[] { "File", "Edit", "View" }) {
+            Button button = new Button(menu);
+            button.setId("toolbar-" + menu.toLowerCase());
+            Popup menuPopup = new Popup();
+            menuPopup.setFor(button.getId().orElse(null));
+            menuPopup.setModeless(true);
+            menuPopup.setHtmlContent("<p>" + menu + " menu</p>");
+            group.add(menuPopup);
+            toolbar.add(button, menuPopup);
+        }
+        return toolbar;
+    }
+
     private Component createOptionsPane() {
         VerticalLayout layout = new VerticalLayout();
         layout.setSpacing(false);
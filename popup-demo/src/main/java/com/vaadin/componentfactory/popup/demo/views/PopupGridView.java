@@ -8,24 +8,38 @@ import com.vaadin.componentfactory.ComponentWithPopupRenderer;
 import com.vaadin.componentfactory.Popup;
 import com.vaadin.componentfactory.PopupAlignment;
 import com.vaadin.componentfactory.PopupPosition;
+import com.vaadin.componentfactory.PopupTemplate;
 import com.vaadin.componentfactory.PopupVariant;
 import com.vaadin.componentfactory.popup.demo.MainLayout;
 import com.vaadin.flow.component.Component;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.button.ButtonVariant;
+import com.vaadin.flow.component.dependency.CssImport;
 import com.vaadin.flow.component.grid.Grid;
 import com.vaadin.flow.component.grid.GridVariant;
 import com.vaadin.flow.component.html.H3;
 import com.vaadin.flow.component.html.Paragraph;
 import com.vaadin.flow.component.html.Span;
+import com.vaadin.flow.component.notification.Notification;
 import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
 import com.vaadin.flow.router.Route;
 import com.vaadin.flow.theme.lumo.LumoIcon;
 
+import elemental.json.Json;
+import elemental.json.JsonObject;
+
 @Route(value = "popup-grid", layout = MainLayout.class)
+@CssImport("./styles/popup-grid-view.css")
 public class PopupGridView extends VerticalLayout {
 
+    private static final PopupTemplate DETAILS_TEMPLATE = new PopupTemplate(
+            "<div class=\"popup-grid-details\">"
+                    + "<h4 data-bind=\"name\"></h4>"
+                    + "<p data-bind=\"type\"></p>"
+                    + "<button data-action=\"select\">Select</button>"
+                    + "</div>");
+
     private boolean closePopupsOnScroll = true;
 
     public PopupGridView() {
@@ -34,7 +48,8 @@ public class PopupGridView extends VerticalLayout {
         add(new Paragraph("This page demonstrates the possibility of using the Popup in the Grid. You can use " +
                 "ComponentWithPopupRenderer class to generate Grid columns with Popups like in the " +
                 "Grid below. Click on the content of the 'ID' column to open the Popup. You can " +
-                "also use the keyboard navigation in the Grid and open the Popup using Spacebar."));
+                "also use the keyboard navigation in the Grid and open the Popup using Spacebar. The popups in the " +
+                "'Template popup' column share one PopupTemplate and only send the values of the row."));
 
         addGrid();
         addCloseOnScrollToggleButton();
@@ -65,6 +80,7 @@ public class PopupGridView extends VerticalLayout {
         addFirstNameColumn(grid);
         addLastNameColumn(grid);
         addPersonTypeColumn(grid);
+        addDetailsWithTemplatePopupColumn(grid);
 
         grid.setItems(createExampleData());
     }
@@ -73,6 +89,30 @@ public class PopupGridView extends VerticalLayout {
         grid.addColumn(createButtonWithPopupRenderer()).setHeader("ID");
     }
 
+    private void addDetailsWithTemplatePopupColumn(Grid<Person> grid) {
+        grid.addColumn(new ComponentWithPopupRenderer<>(
+                person -> new Button("Details"),
+                this::createTemplatePopupForPerson
+        )).setHeader("Template popup");
+    }
+
+    private Popup createTemplatePopupForPerson(Person item) {
+        Popup popup = new Popup();
+        popup.setModeless(true);
+        popup.setPosition(PopupPosition.END);
+
+        JsonObject values = Json.createObject();
+        values.put("name", item.getFirstName() + " " + item.getLastName());
+        values.put("type", item.getType());
+        popup.setTemplateContent(DETAILS_TEMPLATE, values);
+        popup.addTemplateActionListener(event -> {
+            Notification.show("Selected person " + item.getId());
+            popup.hide();
+        });
+
+        return popup;
+    }
+
     private ComponentWithPopupRenderer<Person> createButtonWithPopupRenderer() {
         return new ComponentWithPopupRenderer<>(
                 this::createButtonWithPersonId,
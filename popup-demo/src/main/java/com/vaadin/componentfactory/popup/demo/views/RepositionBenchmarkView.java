@@ -0,0 +1,105 @@
+package com.vaadin.componentfactory.popup.demo.views;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.vaadin.componentfactory.Popup;
+import com.vaadin.componentfactory.PopupPosition;
+import com.vaadin.componentfactory.PopupRepositionMode;
+import com.vaadin.componentfactory.popup.demo.MainLayout;
+import com.vaadin.flow.component.button.Button;
+import com.vaadin.flow.component.html.Div;
+import com.vaadin.flow.component.html.H3;
+import com.vaadin.flow.component.html.Paragraph;
+import com.vaadin.flow.component.html.Span;
+import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
+import com.vaadin.flow.component.orderedlayout.VerticalLayout;
+import com.vaadin.flow.component.radiobutton.RadioButtonGroup;
+import com.vaadin.flow.router.Route;
+
+@Route(value = "reposition-benchmark", layout = MainLayout.class)
+public class RepositionBenchmarkView extends VerticalLayout {
+
+    private static final int POPUP_COUNT = 12;
+    private static final int FRAMES = 240;
+
+    // Scrolls the container a few pixels per animation frame and reports the
+    // frame times. Everything runs in the browser, the server only shows the
+    // result.
+    private static final String BENCHMARK = "return new Promise((resolve) => {\n" +
+            "  const times = [];\n" +
+            "  let last = performance.now();\n" +
+            "  let frame = 0;\n" +
+            "  const step = (now) => {\n" +
+            "    times.push(now - last);\n" +
+            "    last = now;\n" +
+            "    this.scrollTop += frame < $0 / 2 ? 4 : -4;\n" +
+            "    if (++frame < $0) {\n" +
+            "      requestAnimationFrame(step);\n" +
+            "    } else {\n" +
+            "      times.shift();\n" +
+            "      times.sort((a, b) => a - b);\n" +
+            "      const mean = times.reduce((a, b) => a + b, 0) / times.length;\n" +
+            "      const p95 = times[Math.floor(times.length * 0.95)];\n" +
+            "      const longFrames = times.filter((t) => t > 20).length;\n" +
+            "      resolve(`mean ${mean.toFixed(2)} ms, p95 ${p95.toFixed(2)} ms, ` +\n" +
+            "          `${longFrames} of ${times.length} frames over 20 ms`);\n" +
+            "    }\n" +
+            "  };\n" +
+            "  requestAnimationFrame(step);\n" +
+            "});";
+
+    private final List<Popup> popups = new ArrayList<>();
+
+    public RepositionBenchmarkView() {
+        add(new H3("Repositioning benchmark"));
+
+        add(new Paragraph("Opens " + POPUP_COUNT + " modeless popups which follow their targets, then scrolls the " +
+                "container for " + FRAMES + " animation frames and measures the frame times in the browser. " +
+                "Compare the reposition modes; run it with CPU throttling in the browser dev tools to see the " +
+                "difference on slow devices."));
+
+        Div container = new Div();
+        container.setHeight("400px");
+        container.setWidth("600px");
+        container.getStyle().set("overflow", "auto").set("position", "relative");
+        Div content = new Div();
+        content.setHeight("3000px");
+        container.add(content);
+        for (int i = 0; i < POPUP_COUNT; i++) {
+            Span target = new Span("Target " + i);
+            target.setId("reposition-target-" + i);
+            target.getStyle().set("position", "absolute")
+                    .set("top", (150 + i * 60) + "px")
+                    .set("left", (i % 2 == 0 ? 20 : 300) + "px");
+            content.add(target);
+
+            Popup popup = new Popup();
+            popup.setFor(target.getId().orElse(null));
+            popup.setModeless(true);
+            popup.setCloseOnClick(false);
+            popup.setPosition(PopupPosition.END);
+            popup.setHtmlContent("<p>Popup " + i + "</p>");
+            popups.add(popup);
+            add(popup);
+        }
+
+        RadioButtonGroup<PopupRepositionMode> mode = new RadioButtonGroup<>();
+        mode.setLabel("Reposition mode");
+        mode.setItems(PopupRepositionMode.values());
+        mode.setValue(PopupRepositionMode.IMMEDIATE);
+        mode.addValueChangeListener(event -> popups.forEach(popup -> {
+            popup.hide();
+            popup.setRepositionMode(event.getValue());
+        }));
+
+        Span result = new Span();
+        Button run = new Button("Run benchmark", event -> {
+            popups.forEach(Popup::show);
+            result.setText("Running...");
+            container.getElement().executeJs(BENCHMARK, FRAMES).then(String.class, result::setText);
+        });
+
+        add(new HorizontalLayout(mode, run), result, container);
+    }
+}
@@ -0,0 +1,117 @@
+package com.vaadin.componentfactory.popup.demo.views;
+
+import java.util.stream.IntStream;
+
+import com.vaadin.componentfactory.ComponentWithPopupRenderer;
+import com.vaadin.componentfactory.Popup;
+import com.vaadin.componentfactory.PopupPosition;
+import com.vaadin.componentfactory.onboarding.Onboarding;
+import com.vaadin.componentfactory.onboarding.OnboardingStep;
+import com.vaadin.componentfactory.popup.demo.MainLayout;
+import com.vaadin.componentfactory.popup.demo.stress.TimingPanel;
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.button.Button;
+import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.component.html.Div;
+import com.vaadin.flow.component.html.H3;
+import com.vaadin.flow.component.html.Paragraph;
+import com.vaadin.flow.component.html.Span;
+import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
+import com.vaadin.flow.component.orderedlayout.VerticalLayout;
+import com.vaadin.flow.router.Route;
+
+@Route(value = "stress", layout = MainLayout.class)
+public class StressView extends VerticalLayout {
+
+    private static final int GRID_ITEM_COUNT = 100_000;
+    private static final int BOUND_POPUP_COUNT = 1_000;
+    private static final int ONBOARDING_STEP_COUNT = 100;
+
+    private final TimingPanel timing = new TimingPanel();
+    private final Div area = new Div();
+
+    public StressView() {
+        add(new H3("Stress test"));
+        add(new Paragraph("Large scenarios to validate performance changes of the add-on. The panel shows the server " +
+                "handling time, the response payload and the number of live popups for each action."));
+
+        add(new HorizontalLayout(
+                new Button("Grid with " + GRID_ITEM_COUNT + " items",
+                        event -> timing.measure("Show grid", () -> show(createGrid()))),
+                new Button(BOUND_POPUP_COUNT + " bound popups",
+                        event -> timing.measure("Show bound popups", () -> show(createBoundPopups()))),
+                new Button(ONBOARDING_STEP_COUNT + "-step onboarding",
+                        event -> timing.measure("Show onboarding", () -> show(createOnboarding()))),
+                new Button("Clear", event -> timing.measure("Clear", area::removeAll))));
+
+        area.setWidthFull();
+        HorizontalLayout content = new HorizontalLayout(area, timing);
+        content.setWidthFull();
+        content.setFlexGrow(1, area);
+        add(content);
+    }
+
+    private void show(Component component) {
+        area.removeAll();
+        area.add(component);
+    }
+
+    private Component createGrid() {
+        Grid<Integer> grid = new Grid<>();
+        grid.addColumn(item -> "Item " + item).setHeader("Item");
+        grid.addColumn(new ComponentWithPopupRenderer<>(item -> new Button("Details"), this::createItemPopup))
+                .setHeader("Popup");
+        grid.setItems(query -> IntStream.range(query.getOffset(),
+                        Math.min(query.getOffset() + query.getLimit(), GRID_ITEM_COUNT)).boxed(),
+                query -> GRID_ITEM_COUNT);
+        grid.setHeight("500px");
+        return grid;
+    }
+
+    private Popup createItemPopup(Integer item) {
+        timing.record("Open popup of item " + item);
+        Popup popup = new Popup();
+        popup.setModeless(true);
+        popup.setPosition(PopupPosition.END);
+        popup.setHtmlContent("<p>Details of item " + item + "</p>");
+        return popup;
+    }
+
+    private Component createBoundPopups() {
+        Div container = new Div();
+        container.getStyle().set("display", "flex").set("flex-wrap", "wrap").set("gap", "4px");
+        for (int i = 0; i < BOUND_POPUP_COUNT; i++) {
+            Span target = new Span(String.valueOf(i));
+            target.setId("stress-target-" + i);
+            target.getStyle().set("cursor", "pointer");
+            Popup popup = new Popup();
+            popup.setFor(target.getId().orElse(null));
+            popup.setHtmlContent("<p>Popup " + i + "</p>");
+            int index = i;
+            popup.addPopupOpenChangedEventListener(event -> {
+                if (event.isOpened()) {
+                    timing.record("Open bound popup " + index);
+                }
+            });
+            container.add(target, popup);
+        }
+        return container;
+    }
+
+    private Component createOnboarding() {
+        Div container = new Div();
+        container.getStyle().set("display", "flex").set("flex-wrap", "wrap").set("gap", "1rem");
+        Onboarding onboarding = new Onboarding();
+        for (int i = 0; i < ONBOARDING_STEP_COUNT; i++) {
+            Span target = new Span("Step " + (i + 1));
+            container.add(target);
+            OnboardingStep step = new OnboardingStep(target);
+            step.setHeader("Step " + (i + 1) + " of " + ONBOARDING_STEP_COUNT);
+            step.setContent("Onboarding step " + (i + 1));
+            int index = i;
+            step.addBeforePopupShownListener(popup -> timing.record("Onboarding step " + (index + 1)));
+            onboarding.addStep(step);
+        }
+        return new VerticalLayout(new Button("Start onboarding", event -> onboarding.start()), container);
+    }
+}
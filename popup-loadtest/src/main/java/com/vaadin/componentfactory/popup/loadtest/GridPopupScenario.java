@@ -0,0 +1,88 @@
+/*
+ * Copyright 2000-2023 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.componentfactory.popup.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.vaadin.componentfactory.ComponentWithPopupRenderer;
+import com.vaadin.componentfactory.Popup;
+import com.vaadin.componentfactory.PopupPosition;
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.button.Button;
+import com.vaadin.flow.component.html.Div;
+import com.vaadin.flow.component.html.Span;
+import com.vaadin.flow.component.orderedlayout.VerticalLayout;
+
+/**
+ * Renders a page of grid cells with {@link ComponentWithPopupRenderer} and
+ * repeatedly clicks a random cell, which generates a popup, and closes it again.
+ */
+public class GridPopupScenario implements Scenario {
+
+    private static final int ROWS = 50;
+
+    private final List<Component> cells = new ArrayList<>();
+
+    @Override
+    public void setUp(UI ui) {
+        ComponentWithPopupRenderer<Integer> renderer = new ComponentWithPopupRenderer<>(
+                item -> new Button(String.valueOf(item)),
+                this::createPopup);
+        Div rows = new Div();
+        for (int row = 0; row < ROWS; row++) {
+            Component cell = renderer.createComponent(row);
+            cells.add(cell);
+            rows.add(cell);
+        }
+        ui.add(rows);
+    }
+
+    @Override
+    public void run(SimulatedSession session, Random random,
+                    Recorder recorder) {
+        Component cell = cells.get(random.nextInt(cells.size()));
+        Popup[] popup = new Popup[1];
+        session.roundTrip(ui -> {
+            SimulatedSession.fireDomEvent(cell.getElement().getChild(0),
+                    "click");
+            popup[0] = cell.getChildren().filter(Popup.class::isInstance)
+                    .map(Popup.class::cast).reduce((first, last) -> last)
+                    .orElseThrow(() -> new IllegalStateException(
+                            "Clicking the cell did not create a popup"));
+        }, recorder);
+        session.roundTrip(ui -> SimulatedSession.firePopupOpenChanged(popup[0],
+                true), recorder);
+        session.roundTrip(ui -> SimulatedSession.firePopupOpenChanged(popup[0],
+                false), recorder);
+    }
+
+    private Popup createPopup(Integer item) {
+        Popup popup = new Popup();
+        popup.setModeless(true);
+        popup.setPosition(PopupPosition.END);
+        popup.setHeaderTitle("Popup " + item);
+        popup.getHeader().add(new Button("Close", event -> popup.hide()));
+
+        VerticalLayout content = new VerticalLayout();
+        content.add(new Span("Popup " + item + " content"));
+        content.add(new Span("Some details of item " + item));
+        popup.add(content);
+        return popup;
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2000-2023 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.componentfactory.popup.loadtest;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import com.vaadin.componentfactory.Popup;
+import com.vaadin.flow.component.html.Span;
+
+/**
+ * Browserless load test for the popup add-on.
+ * <p>
+ * Creates the given number of {@link SimulatedSession}s in this JVM, sets up
+ * one {@link Scenario} in each of them (grid cells with
+ * {@code ComponentWithPopupRenderer}, popup open/close cycles and
+ * {@code Onboarding} tours, assigned round-robin) and then drives them from a
+ * pool of worker threads. Each session is owned by exactly one worker, so
+ * round trips of a session are sequential like those of a real user.
+ * <p>
+ * Reports the throughput and latency percentiles of the server side handling,
+ * the average response payload, the retained heap per session and the
+ * serialized size of a session and the serialized size of a popup. The state
+ * node footprint of a popup is checked by the unit tests of the add-on.
+ * <p>
+ * Options are given as {@code key=value} arguments:
+ * <ul>
+ * <li>{@code sessions} - number of simulated sessions, default 500</li>
+ * <li>{@code threads} - number of worker threads, default: available
+ * processors</li>
+ * <li>{@code iterations} - scenario iterations per session, default 20</li>
+ * <li>{@code scenario} - {@code grid}, {@code openclose}, {@code onboarding} or
+ * {@code all} (default)</li>
+ * </ul>
+ */
+public class LoadTest {
+
+    private static final Map<String, Supplier<Scenario>> SCENARIOS = Map.of(
+            "grid", GridPopupScenario::new,
+            "openclose", OpenCloseScenario::new,
+            "onboarding", OnboardingScenario::new);
+
+    private final int sessionCount;
+    private final int threadCount;
+    private final int iterations;
+    private final List<Supplier<Scenario>> scenarios;
+
+    public LoadTest(int sessionCount, int threadCount, int iterations,
+                    List<Supplier<Scenario>> scenarios) {
+        this.sessionCount = sessionCount;
+        this.threadCount = threadCount;
+        this.iterations = iterations;
+        this.scenarios = scenarios;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] keyValue = arg.split("=", 2);
+            if (keyValue.length != 2) {
+                throw new IllegalArgumentException(
+                        "Expected key=value but got: " + arg);
+            }
+            options.put(keyValue[0], keyValue[1]);
+        }
+
+        String scenario = options.getOrDefault("scenario", "all");
+        List<Supplier<Scenario>> scenarios = new ArrayList<>();
+        if ("all".equals(scenario)) {
+            scenarios.add(SCENARIOS.get("grid"));
+            scenarios.add(SCENARIOS.get("openclose"));
+            scenarios.add(SCENARIOS.get("onboarding"));
+        } else if (SCENARIOS.containsKey(scenario)) {
+            scenarios.add(SCENARIOS.get(scenario));
+        } else {
+            throw new IllegalArgumentException("Unknown scenario: " + scenario);
+        }
+
+        new LoadTest(
+                Integer.parseInt(options.getOrDefault("sessions", "500")),
+                Integer.parseInt(options.getOrDefault("threads",
+                        String.valueOf(Runtime.getRuntime().availableProcessors()))),
+                Integer.parseInt(options.getOrDefault("iterations", "20")),
+                scenarios).run();
+    }
+
+    public void run() throws Exception {
+        long heapBefore = usedHeap();
+        List<SimulatedSession> sessions = new ArrayList<>(sessionCount);
+        List<Scenario> sessionScenarios = new ArrayList<>(sessionCount);
+        for (int i = 0; i < sessionCount; i++) {
+            SimulatedSession session = new SimulatedSession();
+            Scenario scenario = scenarios.get(i % scenarios.size()).get();
+            session.roundTrip(scenario::setUp, null);
+            sessions.add(session);
+            sessionScenarios.add(scenario);
+        }
+        long heapAfterSetUp = usedHeap();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        List<Future<Recorder>> results = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int worker = 0; worker < threadCount; worker++) {
+            int offset = worker;
+            results.add(executor.submit(() -> {
+                Recorder recorder = new Recorder();
+                Random random = new Random(offset);
+                for (int iteration = 0; iteration < iterations; iteration++) {
+                    for (int i = offset; i < sessionCount; i += threadCount) {
+                        sessionScenarios.get(i).run(sessions.get(i), random,
+                                recorder);
+                    }
+                }
+                return recorder;
+            }));
+        }
+        Recorder total = new Recorder();
+        for (Future<Recorder> result : results) {
+            total.merge(result.get());
+        }
+        long elapsed = System.nanoTime() - start;
+        executor.shutdown();
+        long heapAfterRun = usedHeap();
+
+        int sampleSize = Math.min(10, sessionCount);
+        long serialized = 0;
+        for (int i = 0; i < sampleSize; i++) {
+            serialized += sessions.get(i).getSerializedSize();
+        }
+
+        System.out.printf("sessions:                 %d%n", sessionCount);
+        System.out.printf("threads:                  %d%n", threadCount);
+        System.out.printf("round trips:              %d%n", total.getCount());
+        System.out.printf("throughput:               %.0f round trips/s%n",
+                total.getCount() / (elapsed / 1e9));
+        System.out.printf("latency p50:              %.3f ms%n",
+                total.getPercentile(50) / 1e6);
+        System.out.printf("latency p99:              %.3f ms%n",
+                total.getPercentile(99) / 1e6);
+        System.out.printf("latency max:              %.3f ms%n",
+                total.getPercentile(100) / 1e6);
+        System.out.printf("payload per round trip:   %d bytes%n",
+                total.getCount() == 0 ? 0
+                        : total.getPayloadBytes() / total.getCount());
+        System.out.printf("heap per session (setup): %d KB%n",
+                (heapAfterSetUp - heapBefore) / sessionCount / 1024);
+        System.out.printf("heap per session (run):   %d KB%n",
+                (heapAfterRun - heapBefore) / sessionCount / 1024);
+        System.out.printf("serialized session:       %d bytes%n",
+                sampleSize == 0 ? 0 : serialized / sampleSize);
+
+        // keep the sessions reachable until the heap has been measured
+        if (sessions.isEmpty() && sessionScenarios.isEmpty()) {
+            System.out.println("No sessions were simulated");
+        }
+
+        measureSerializedPopups();
+    }
+
+    /**
+     * Reports the serialized size of a UI with many popups holding one
+     * component each, relative to the same UI without them.
+     */
+    private static void measureSerializedPopups() {
+        int popupCount = 100;
+        SimulatedSession empty = new SimulatedSession();
+        empty.roundTrip(ui -> ui.add(new Span()), null);
+        SimulatedSession withPopups = new SimulatedSession();
+        withPopups.roundTrip(ui -> {
+            ui.add(new Span());
+            for (int i = 0; i < popupCount; i++) {
+                Popup popup = new Popup();
+                popup.add(new Span("Popup " + i));
+                ui.add(popup);
+            }
+        }, null);
+        int perPopup = (withPopups.getSerializedSize()
+                - empty.getSerializedSize()) / popupCount;
+        System.out.printf("serialized popup:         %d bytes with one component%n",
+                perPopup);
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2000-2023 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.componentfactory.popup.loadtest;
+
+import java.util.Random;
+
+import com.vaadin.componentfactory.onboarding.Onboarding;
+import com.vaadin.componentfactory.onboarding.OnboardingStep;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.html.Span;
+
+/**
+ * Walks through a whole {@link Onboarding} tour, step by step.
+ */
+public class OnboardingScenario implements Scenario {
+
+    private static final int STEPS = 5;
+
+    private final Tour tour = new Tour();
+
+    @Override
+    public void setUp(UI ui) {
+        for (int i = 0; i < STEPS; i++) {
+            Span target = new Span("Target " + i);
+            ui.add(target);
+
+            OnboardingStep step = new OnboardingStep(target);
+            step.setHeader("Step " + i);
+            step.setContent("Explanation of the target " + i);
+            tour.addStep(step);
+        }
+    }
+
+    @Override
+    public void run(SimulatedSession session, Random random,
+                    Recorder recorder) {
+        session.roundTrip(ui -> tour.start(), recorder);
+        for (int i = 1; i < STEPS; i++) {
+            session.roundTrip(ui -> tour.next(), recorder);
+        }
+        session.roundTrip(ui -> tour.stop(), recorder);
+    }
+
+    /**
+     * Exposes the step navigation otherwise triggered by the footer buttons.
+     */
+    private static class Tour extends Onboarding {
+        void next() {
+            showNextStep();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2000-2023 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.componentfactory.popup.loadtest;
+
+import java.util.Random;
+
+import com.vaadin.componentfactory.Popup;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.button.Button;
+import com.vaadin.flow.component.html.Span;
+import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
+import com.vaadin.flow.component.orderedlayout.VerticalLayout;
+
+/**
+ * A statically bound popup which is opened programmatically and then closed by
+ * the user.
+ */
+public class OpenCloseScenario implements Scenario {
+
+    private final Popup popup = new Popup();
+
+    @Override
+    public void setUp(UI ui) {
+        Button target = new Button("Open popup");
+        target.setId("open-close-target");
+
+        VerticalLayout content = new VerticalLayout();
+        content.add(new Span("Lorem ipsum dolor sit amet, consectetuer adipiscing elit."));
+        content.add(new HorizontalLayout(new Button("Action 1"), new Button("Action 2")));
+        content.add(new Span("Donec ipsum massa, ullamcorper in, auctor et, scelerisque sed, est."));
+        popup.add(content);
+        popup.setFor(target.getId().orElse(null));
+
+        ui.add(target, popup);
+    }
+
+    @Override
+    public void run(SimulatedSession session, Random random,
+                    Recorder recorder) {
+        session.roundTrip(ui -> popup.show(), recorder);
+        session.roundTrip(ui -> SimulatedSession.firePopupOpenChanged(popup,
+                true), recorder);
+        session.roundTrip(ui -> SimulatedSession.firePopupOpenChanged(popup,
+                false), recorder);
+    }
+}
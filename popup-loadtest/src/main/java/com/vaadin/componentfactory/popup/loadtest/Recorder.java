@@ -0,0 +1,81 @@
+/*
+ * Copyright 2000-2023 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.componentfactory.popup.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Collects the server handling time and the response payload size of round
+ * trips. A recorder is owned by a single worker thread; results of several
+ * recorders are combined using {@link #merge(Recorder)}.
+ */
+public class Recorder {
+
+    private long[] latencies = new long[1024];
+    private int count;
+    private long payloadBytes;
+
+    /**
+     * Records one round trip.
+     *
+     * @param nanos        the server handling time in nanoseconds
+     * @param payloadBytes the encoded size of the response
+     */
+    public void record(long nanos, long payloadBytes) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = nanos;
+        this.payloadBytes += payloadBytes;
+    }
+
+    /**
+     * Adds all samples of the given recorder to this one.
+     *
+     * @param other the recorder to merge
+     */
+    public void merge(Recorder other) {
+        for (int i = 0; i < other.count; i++) {
+            record(other.latencies[i], 0);
+        }
+        payloadBytes += other.payloadBytes;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public long getPayloadBytes() {
+        return payloadBytes;
+    }
+
+    /**
+     * Gets the latency below which the given share of the recorded round
+     * trips completed.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the latency in nanoseconds, or 0 if nothing was recorded
+     */
+    public long getPercentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100 * count) - 1;
+        return sorted[Math.max(0, Math.min(index, count - 1))];
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2000-2023 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.componentfactory.popup.loadtest;
+
+import java.io.Serializable;
+import java.util.Random;
+
+import com.vaadin.flow.component.UI;
+
+/**
+ * A popup workload driven against one {@link SimulatedSession}. A new instance
+ * is created for every session, so implementations may keep references to the
+ * components they have created.
+ */
+public interface Scenario extends Serializable {
+
+    /**
+     * Builds the view of the scenario. Called once, with the session locked.
+     *
+     * @param ui the UI of the session
+     */
+    void setUp(UI ui);
+
+    /**
+     * Runs one iteration of user interaction, consisting of one or more round
+     * trips.
+     *
+     * @param session  the session to drive
+     * @param random   source of randomness owned by the calling thread
+     * @param recorder where the round trips are recorded
+     */
+    void run(SimulatedSession session, Random random, Recorder recorder);
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright 2000-2023 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.componentfactory.popup.loadtest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import com.vaadin.componentfactory.Popup;
+import com.vaadin.flow.component.HasElement;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.internal.PendingJavaScriptInvocation;
+import com.vaadin.flow.component.internal.UIInternals;
+import com.vaadin.flow.dom.DomEvent;
+import com.vaadin.flow.dom.Element;
+import com.vaadin.flow.internal.ConstantPool;
+import com.vaadin.flow.internal.CurrentInstance;
+import com.vaadin.flow.internal.JsonCodec;
+import com.vaadin.flow.internal.StateTree;
+import com.vaadin.flow.internal.nodefeature.ElementListenerMap;
+import com.vaadin.flow.internal.nodefeature.ElementPropertyMap;
+import com.vaadin.flow.internal.nodefeature.PropertyChangeDeniedException;
+import com.vaadin.flow.router.AfterNavigationEvent;
+import com.vaadin.flow.router.Location;
+import com.vaadin.flow.router.LocationChangeEvent;
+import com.vaadin.flow.router.NavigationTrigger;
+import com.vaadin.flow.router.Router;
+import com.vaadin.flow.router.internal.AfterNavigationHandler;
+import com.vaadin.flow.server.SessionRouteRegistry;
+import com.vaadin.flow.server.VaadinSession;
+
+import elemental.json.Json;
+import elemental.json.JsonObject;
+import elemental.json.JsonValue;
+
+/**
+ * An in-process Vaadin session with a single {@link UI}, driven without a
+ * browser or a servlet container.
+ * <p>
+ * Every {@link #roundTrip(Consumer, Recorder)} mimics the server side of one
+ * request: the session is locked, the action runs, pending
+ * {@code beforeClientResponse} callbacks are executed and the resulting state
+ * changes and JavaScript invocations are encoded as they would be for the
+ * client, so the encoded size can be reported as the response payload.
+ */
+public class SimulatedSession {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final VaadinSession session;
+    private final UI ui;
+    private List<PendingJavaScriptInvocation> invocations = new ArrayList<>();
+
+    public SimulatedSession() {
+        session = new LockedSession(lock);
+        ui = new UI();
+        lock.lock();
+        try {
+            ui.getInternals().setSession(session);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public UI getUI() {
+        return ui;
+    }
+
+    /**
+     * Runs the given action as if it was triggered by one client request.
+     *
+     * @param action   the server side handling of the request
+     * @param recorder where to record the timing and the payload, or
+     *                 {@code null} to run the action without recording it
+     */
+    public void roundTrip(Consumer<UI> action, Recorder recorder) {
+        lock.lock();
+        VaadinSession.setCurrent(session);
+        UI.setCurrent(ui);
+        try {
+            long start = System.nanoTime();
+            action.accept(ui);
+            long payload = collectResponse();
+            if (recorder != null) {
+                recorder.record(System.nanoTime() - start, payload);
+            }
+        } finally {
+            CurrentInstance.clearAll();
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the JavaScript invocations sent to the client in the response of
+     * the last round trip. Invocations of detached elements are not sent.
+     *
+     * @return the invocations
+     */
+    public List<PendingJavaScriptInvocation> getJavaScriptInvocations() {
+        return invocations;
+    }
+
+    /**
+     * Fires a DOM event on the given element the same way as if it was sent by
+     * the client.
+     *
+     * @param element   the element the event is targeted to
+     * @param eventType the DOM event type, e.g. {@code click}
+     * @param eventData the event data sent by the client
+     */
+    public static void fireDomEvent(Element element, String eventType,
+                                    JsonObject eventData) {
+        element.getNode().getFeature(ElementListenerMap.class)
+                .fireEvent(new DomEvent(element, eventType, eventData));
+    }
+
+    /**
+     * Fires a DOM event without event data on the given element, as if all
+     * filters of its listeners passed on the client. Only for events whose
+     * listeners don't use event data other than filters, e.g. clicks.
+     *
+     * @param element   the element the event is targeted to
+     * @param eventType the DOM event type, e.g. {@code click}
+     */
+    public static void fireDomEvent(Element element, String eventType) {
+        JsonObject eventData = Json.createObject();
+        element.getNode().getFeature(ElementListenerMap.class)
+                .getExpressions(eventType)
+                .forEach(filter -> eventData.put(filter, true));
+        fireDomEvent(element, eventType, eventData);
+    }
+
+    /**
+     * Fires the {@code popup-open-changed} event the web component sends when
+     * the popup is opened or closed on the client, together with the
+     * synchronized {@code opened} property.
+     *
+     * @param popup  the popup
+     * @param opened the new opened state
+     */
+    public static void firePopupOpenChanged(Popup popup, boolean opened) {
+        try {
+            popup.getElement().getNode().getFeature(ElementPropertyMap.class)
+                    .deferredUpdateFromClient("opened", opened).run();
+        } catch (PropertyChangeDeniedException e) {
+            throw new IllegalStateException(e);
+        }
+        JsonObject eventData = Json.createObject();
+        eventData.put("event.detail.opened", opened);
+        fireDomEvent(popup.getElement(), "popup-open-changed", eventData);
+    }
+
+    /**
+     * Notifies the after navigation listeners of the given UI as if the user
+     * had navigated to another view.
+     *
+     * @param ui          the UI
+     * @param activeChain the route target and its layouts after the
+     *                    navigation
+     */
+    public static void fireAfterNavigation(UI ui, HasElement... activeChain) {
+        AfterNavigationEvent event = new AfterNavigationEvent(
+                new LocationChangeEvent(new Router(SessionRouteRegistry
+                        .getSessionRegistry(ui.getSession())), ui,
+                        NavigationTrigger.PROGRAMMATIC, new Location("other"),
+                        Arrays.asList(activeChain)));
+        ui.getInternals().getListeners(AfterNavigationHandler.class)
+                .forEach(listener -> listener.afterNavigation(event));
+    }
+
+    /**
+     * Gets the size of this session in its serialized form, i.e. the amount of
+     * data replicated for it in a clustered deployment.
+     *
+     * @return the serialized size in bytes
+     */
+    public int getSerializedSize() {
+        lock.lock();
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(ui);
+            }
+            return bytes.size();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long collectResponse() {
+        UIInternals internals = ui.getInternals();
+        StateTree stateTree = internals.getStateTree();
+        stateTree.runExecutionsBeforeClientResponse();
+
+        ConstantPool constantPool = new ConstantPool();
+        long[] payload = new long[1];
+        stateTree.collectChanges(change -> payload[0] += encodedLength(
+                change.toJson(constantPool)));
+        invocations = internals.dumpPendingJavaScriptInvocations();
+        for (PendingJavaScriptInvocation invocation : invocations) {
+            payload[0] += invocation.getInvocation().getExpression().length();
+            for (Object parameter : invocation.getInvocation()
+                    .getParameters()) {
+                payload[0] += encodedLength(
+                        JsonCodec.encodeWithTypeInfo(parameter));
+            }
+        }
+        if (constantPool.hasNewConstants()) {
+            payload[0] += encodedLength(constantPool.dumpConstants());
+        }
+        return payload[0];
+    }
+
+    // Some values, e.g. the renderer function of a VirtualList, have no JSON
+    // representation of their own
+    private static int encodedLength(JsonValue value) {
+        String json = value.toJson();
+        return json == null ? 0 : json.length();
+    }
+
+    /**
+     * A session which is never bound to a {@code VaadinService} and uses the
+     * lock of the owning {@link SimulatedSession}.
+     */
+    private static class LockedSession extends VaadinSession {
+        private final transient Lock lock;
+
+        LockedSession(Lock lock) {
+            super(null);
+            this.lock = lock;
+        }
+
+        @Override
+        public Lock getLockInstance() {
+            return lock;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2000-2023 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.componentfactory.popup.loadtest;
+
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.vaadin.componentfactory.ComponentWithPopupRenderer;
+import com.vaadin.componentfactory.Popup;
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.button.Button;
+import com.vaadin.flow.component.internal.PendingJavaScriptInvocation;
+import com.vaadin.flow.internal.StateNode;
+
+/**
+ * Checks that the open claim of a cell target, which drops duplicate clicks in
+ * the browser, is always released. The claims are tracked the way
+ * popupConnector.js does: a click claims its target, and is only sent if the
+ * target was not claimed yet.
+ */
+public class ComponentWithPopupRendererTest {
+
+    private final SimulatedSession session = new SimulatedSession();
+    private final Set<StateNode> claimed = new HashSet<>();
+    private final ComponentWithPopupRenderer<Integer> renderer = new ComponentWithPopupRenderer<>(
+            item -> new Button(String.valueOf(item)), item -> new Popup());
+    private Component cell;
+
+    @BeforeEach
+    public void setUp() {
+        roundTrip(ui -> {
+            cell = renderer.createComponent(1);
+            ui.add(cell);
+        });
+    }
+
+    @Test
+    public void refreshWhileOpenThenCloseAndClickAgain() {
+        click(getTarget());
+        Popup popup = getPopup().orElseThrow();
+        roundTrip(ui -> SimulatedSession.firePopupOpenChanged(popup, true));
+
+        roundTrip(ui -> renderer.updateComponent(cell, 1));
+        Component refreshed = getTarget();
+        click(refreshed);
+        Assertions.assertSame(popup, getPopup().orElseThrow());
+        Assertions.assertFalse(isClaimed(refreshed),
+                "A click ignored by the server should release its target");
+
+        roundTrip(ui -> SimulatedSession.firePopupOpenChanged(popup, false));
+        Assertions.assertFalse(getPopup().isPresent());
+        Assertions.assertFalse(isClaimed(refreshed));
+
+        click(refreshed);
+        Assertions.assertNotSame(popup, getPopup().orElse(popup),
+                "Clicking the refreshed target should open a new popup");
+    }
+
+    @Test
+    public void updatedTargetIsReleasedOnClose() {
+        ComponentWithPopupRenderer<Integer> updating = new ComponentWithPopupRenderer<>(
+                item -> new Button(String.valueOf(item)),
+                (target, item) -> target, item -> new Popup());
+        roundTrip(ui -> {
+            ui.remove(cell);
+            cell = updating.createComponent(1);
+            ui.add(cell);
+        });
+        Component target = getTarget();
+        click(target);
+        Popup popup = getPopup().orElseThrow();
+        roundTrip(ui -> SimulatedSession.firePopupOpenChanged(popup, true));
+
+        roundTrip(ui -> updating.updateComponent(cell, 1));
+        Assertions.assertSame(target, getTarget());
+        Assertions.assertTrue(isClaimed(target));
+
+        roundTrip(ui -> SimulatedSession.firePopupOpenChanged(popup, false));
+        Assertions.assertFalse(isClaimed(target));
+    }
+
+    private void click(Component target) {
+        if (claimed.add(target.getElement().getNode())) {
+            roundTrip(ui -> SimulatedSession
+                    .fireDomEvent(target.getElement(), "click"));
+        }
+    }
+
+    private void roundTrip(Consumer<UI> action) {
+        session.roundTrip(action, null);
+        for (PendingJavaScriptInvocation invocation : session
+                .getJavaScriptInvocations()) {
+            if (invocation.getInvocation().getExpression()
+                    .contains("releaseOpen(this)")) {
+                claimed.remove(invocation.getOwner());
+            }
+        }
+    }
+
+    private boolean isClaimed(Component target) {
+        return claimed.contains(target.getElement().getNode());
+    }
+
+    private Component getTarget() {
+        return cell.getChildren().filter(child -> !(child instanceof Popup))
+                .findFirst().orElseThrow();
+    }
+
+    private Optional<Popup> getPopup() {
+        return cell.getChildren().filter(Popup.class::isInstance)
+                .map(Popup.class::cast).findFirst();
+    }
+}
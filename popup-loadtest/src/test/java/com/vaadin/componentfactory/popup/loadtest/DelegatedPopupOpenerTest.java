@@ -0,0 +1,131 @@
+/*
+ * Copyright 2000-2023 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.componentfactory.popup.loadtest;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.vaadin.componentfactory.DelegatedPopupOpener;
+import com.vaadin.componentfactory.Popup;
+import com.vaadin.componentfactory.PopupNavigationPolicy;
+import com.vaadin.flow.component.html.Div;
+import com.vaadin.flow.component.html.Span;
+import com.vaadin.flow.internal.nodefeature.ElementListenerMap;
+
+import elemental.json.Json;
+import elemental.json.JsonObject;
+
+/**
+ * Checks that a click delegated to the container opens the popup of the
+ * clicked item, and that the popup is released on navigation.
+ */
+public class DelegatedPopupOpenerTest {
+
+    private final SimulatedSession session = new SimulatedSession();
+    private final Div container = new Div();
+    private final Map<Popup, String> popupItems = new HashMap<>();
+    private PopupNavigationPolicy generatedPolicy;
+    private DelegatedPopupOpener<String> opener;
+
+    @BeforeEach
+    public void setUp() {
+        session.roundTrip(ui -> {
+            for (String key : new String[] { "a", "b", "c" }) {
+                Span child = new Span(key);
+                DelegatedPopupOpener.setKey(child, key);
+                container.add(child);
+            }
+            ui.add(container);
+            opener = new DelegatedPopupOpener<>(container,
+                    key -> "item " + key, item -> {
+                        Popup popup = new Popup();
+                        if (generatedPolicy != null) {
+                            popup.setNavigationPolicy(generatedPolicy);
+                        }
+                        popupItems.put(popup, item);
+                        return popup;
+                    });
+        }, null);
+    }
+
+    @Test
+    public void clickOpensThePopupOfTheClickedItem() {
+        click("b");
+
+        Popup popup = opener.getPopup();
+        Assertions.assertEquals("item b", popupItems.get(popup));
+        Assertions.assertEquals(session.getUI(), popup.getParent().orElse(null));
+        Assertions.assertTrue(session.getJavaScriptInvocations().stream()
+                .anyMatch(invocation -> invocation.getOwner() == popup
+                        .getElement().getNode()
+                        && invocation.getInvocation().getParameters()
+                                .contains("b")),
+                "The popup should be anchored to the clicked child");
+
+        click("c");
+        Assertions.assertEquals("item c", popupItems.get(opener.getPopup()));
+        Assertions.assertFalse(popup.getParent().isPresent(),
+                "Only one popup should be open at a time");
+    }
+
+    @Test
+    public void popupIsReleasedOnNavigation() {
+        click("a");
+        Popup popup = opener.getPopup();
+        Assertions.assertEquals(PopupNavigationPolicy.RELEASE,
+                popup.getNavigationPolicy());
+
+        session.roundTrip(ui -> SimulatedSession.fireAfterNavigation(ui),
+                null);
+
+        Assertions.assertFalse(popup.getParent().isPresent());
+    }
+
+    @Test
+    public void policyOfTheGeneratorIsKept() {
+        generatedPolicy = PopupNavigationPolicy.KEEP;
+        click("a");
+        Popup popup = opener.getPopup();
+
+        session.roundTrip(ui -> SimulatedSession.fireAfterNavigation(ui),
+                null);
+
+        Assertions.assertEquals(PopupNavigationPolicy.KEEP,
+                popup.getNavigationPolicy());
+        Assertions.assertTrue(popup.getParent().isPresent());
+    }
+
+    // Sends a click on the child with the given key, with the event data the
+    // browser would send: the key, and the filter passed
+    private void click(String key) {
+        JsonObject eventData = Json.createObject();
+        container.getElement().getNode().getFeature(ElementListenerMap.class)
+                .getExpressions("click").forEach(expression -> {
+                    if (expression.endsWith("!== null")) {
+                        eventData.put(expression, true);
+                    } else {
+                        eventData.put(expression, key);
+                    }
+                });
+        session.roundTrip(ui -> SimulatedSession
+                .fireDomEvent(container.getElement(), "click", eventData),
+                null);
+    }
+}
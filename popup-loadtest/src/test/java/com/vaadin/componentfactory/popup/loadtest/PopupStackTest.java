@@ -0,0 +1,151 @@
+/*
+ * Copyright 2000-2023 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.componentfactory.popup.loadtest;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.vaadin.componentfactory.Popup;
+import com.vaadin.componentfactory.PopupStack;
+import com.vaadin.flow.component.internal.PendingJavaScriptInvocation;
+
+/**
+ * Checks that {@link PopupStack} follows the popups opened and closed in the
+ * browser, and that closing popups from the server takes a single call.
+ */
+public class PopupStackTest {
+
+    private final SimulatedSession session = new SimulatedSession();
+    private final Popup first = new Popup();
+    private final Popup second = new Popup();
+    private final Popup third = new Popup();
+    private PopupStack stack;
+
+    @BeforeEach
+    public void setUp() {
+        session.roundTrip(ui -> {
+            ui.add(first, second, third);
+            stack = PopupStack.get(ui);
+        }, null);
+    }
+
+    @Test
+    public void popupsAreStackedInOpenOrder() {
+        open(first, second, third);
+        Assertions.assertEquals(List.of(first, second, third),
+                stack.getOpenPopups());
+
+        close(second);
+        open(second);
+        Assertions.assertEquals(List.of(first, third, second),
+                stack.getOpenPopups());
+        Assertions.assertEquals(Optional.of(second), stack.getTopmost());
+    }
+
+    @Test
+    public void popupClosedWithEscapeLeavesTheOneBelowOnTop() {
+        open(first, second);
+
+        // the browser closes the topmost popup on Escape and reports it
+        close(second);
+
+        Assertions.assertEquals(Optional.of(first), stack.getTopmost());
+        Assertions.assertEquals(1, stack.size());
+    }
+
+    @Test
+    public void closeTopmostIsOneCallToTheBrowser() {
+        open(first, second);
+
+        session.roundTrip(ui -> stack.closeTopmost(), null);
+        assertSingleCall("closeTopmost(this)");
+        // the stack changes once the browser reports the closed popup
+        Assertions.assertEquals(2, stack.size());
+
+        close(second);
+        Assertions.assertEquals(Optional.of(first), stack.getTopmost());
+    }
+
+    @Test
+    public void closeAllIsOneCallToTheBrowser() {
+        open(first, second, third);
+
+        session.roundTrip(ui -> stack.closeAll(), null);
+        assertSingleCall("closeAll(this)");
+
+        close(third, second, first);
+        Assertions.assertEquals(0, stack.size());
+        Assertions.assertEquals(Optional.empty(), stack.getTopmost());
+    }
+
+    @Test
+    public void detachedPopupIsRemoved() {
+        open(first, second);
+
+        session.roundTrip(ui -> ui.remove(second), null);
+
+        Assertions.assertEquals(List.of(first), stack.getOpenPopups());
+    }
+
+    @Test
+    public void popupsOpenBeforeTheStackIsUsedAreStacked() {
+        SimulatedSession other = new SimulatedSession();
+        Popup open = new Popup();
+        Popup closed = new Popup();
+        other.roundTrip(ui -> ui.add(open, closed), null);
+        other.roundTrip(ui -> SimulatedSession.firePopupOpenChanged(open, true),
+                null);
+
+        PopupStack[] otherStack = new PopupStack[1];
+        other.roundTrip(ui -> otherStack[0] = PopupStack.get(ui), null);
+        Assertions.assertEquals(List.of(open), otherStack[0].getOpenPopups());
+
+        other.roundTrip(ui -> SimulatedSession.firePopupOpenChanged(closed,
+                true), null);
+        Assertions.assertEquals(List.of(open, closed),
+                otherStack[0].getOpenPopups());
+    }
+
+    private void open(Popup... popups) {
+        for (Popup popup : popups) {
+            session.roundTrip(
+                    ui -> SimulatedSession.firePopupOpenChanged(popup, true),
+                    null);
+        }
+    }
+
+    private void close(Popup... popups) {
+        for (Popup popup : popups) {
+            session.roundTrip(
+                    ui -> SimulatedSession.firePopupOpenChanged(popup, false),
+                    null);
+        }
+    }
+
+    private void assertSingleCall(String call) {
+        List<PendingJavaScriptInvocation> invocations = session
+                .getJavaScriptInvocations();
+        Assertions.assertEquals(1, invocations.size());
+        Assertions.assertEquals(session.getUI().getElement().getNode(),
+                invocations.get(0).getOwner());
+        Assertions.assertTrue(invocations.get(0).getInvocation()
+                .getExpression().contains(call));
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2000-2023 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.componentfactory;
+
+import java.io.Serializable;
+
+/**
+ * Implemented by components which should only be active while the
+ * {@link Popup} they are in is visible.
+ * <p>
+ * Popup content stays attached while the popup is closed. Content which does
+ * expensive work, like subscribing to backend updates, polling or running
+ * timers, can implement this interface to start that work when the popup
+ * opens and to stop it when the popup closes or is detached. The popup calls
+ * these methods on all components implementing the interface in its content,
+ * header and footer, including nested ones. A component added while the
+ * popup is open is activated right away.
+ * <p>
+ * The popup only starts tracking its open state once such a component is
+ * added to it with {@link Popup#add(com.vaadin.flow.component.Component...)},
+ * {@link Popup#addComponentAtIndex(int, com.vaadin.flow.component.Component)}
+ * or to its header or footer, directly or nested in the added component.
+ *
+ * @author Vaadin Ltd
+ */
+public interface ActivatablePopupContent extends Serializable {
+
+    /**
+     * Called when the popup containing this component has been opened.
+     *
+     * @param popup the popup
+     */
+    void onPopupActivated(Popup popup);
+
+    /**
+     * Called when the popup containing this component has been closed or
+     * detached.
+     *
+     * @param popup the popup
+     */
+    void onPopupDeactivated(Popup popup);
+}
@@ -18,9 +18,12 @@ package com.vaadin.componentfactory;
 import java.util.concurrent.atomic.AtomicLong;
 
 import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.ComponentUtil;
 import com.vaadin.flow.component.HasComponents;
 import com.vaadin.flow.component.html.Div;
 import com.vaadin.flow.data.renderer.ComponentRenderer;
+import com.vaadin.flow.dom.Element;
+import com.vaadin.flow.function.SerializableBiFunction;
 import com.vaadin.flow.function.SerializableFunction;
 import com.vaadin.flow.function.SerializableSupplier;
 
@@ -29,6 +32,14 @@ import com.vaadin.flow.function.SerializableSupplier;
  * When this component is clicked, the Popup is generated using provided
  * {@link PopupGenerator}, attached to the DOM and shown.
  * The popup is removed from the DOM tree once it's hidden.
+ * <p>
+ * When an item is refreshed, the existing cell is reused: the wrapping
+ * container and its client side listener are kept, and only the target
+ * component is updated, either by the optional target updater or by creating a
+ * new one.
+ * <p>
+ * Opening is idempotent per cell: clicks on a target whose popup is pending or
+ * open are dropped in the browser, and the server ignores them as well.
  *
  * @param <ITEM> the type of the input object that can be used by the rendered
  *               component
@@ -40,8 +51,21 @@ public class ComponentWithPopupRenderer<ITEM> extends ComponentRenderer<Componen
 
     protected SerializableFunction<ITEM, ? extends Component> componentFunction;
 
+    protected SerializableBiFunction<Component, ITEM, ? extends Component> targetUpdater;
+
     private static final AtomicLong idCounter = new AtomicLong(0);
 
+    private static final String ITEM_KEY = ComponentWithPopupRenderer.class
+            .getName() + ".item";
+    private static final String TARGET_KEY = ComponentWithPopupRenderer.class
+            .getName() + ".target";
+    private static final String POPUP_KEY = ComponentWithPopupRenderer.class
+            .getName() + ".popup";
+
+    // evaluated in the browser before a click is sent to the server
+    private static final String CLAIM_OPEN_FILTER = "!window.Vaadin.Flow.popupConnector"
+            + " || window.Vaadin.Flow.popupConnector.claimOpen(element)";
+
 
     /**
      * Creates a new renderer instance using the provided
@@ -59,21 +83,88 @@ public class ComponentWithPopupRenderer<ITEM> extends ComponentRenderer<Componen
         this.componentFunction = componentFunction;
     }
 
+    /**
+     * Creates a new renderer instance using the provided
+     * {@code componentFunction}, {@code targetUpdater} and
+     * {@code itemPopupGenerator}.
+     *
+     * @param itemPopupGenerator should return Popup instance based on the provided grid item
+     * @param componentFunction  function which returns the component that
+     *                           will be rendered in the grid. A popup will appear
+     *                           when this component is clicked.
+     * @param targetUpdater      function which updates the rendered component
+     *                           when its item is refreshed. It should return the
+     *                           given component after updating it, or a new
+     *                           component to replace it with.
+     */
+    public ComponentWithPopupRenderer(SerializableFunction<ITEM, ? extends Component> componentFunction,
+                                      SerializableBiFunction<Component, ITEM, ? extends Component> targetUpdater,
+                                      PopupGenerator<ITEM> itemPopupGenerator) {
+        this(componentFunction, itemPopupGenerator);
+        this.targetUpdater = targetUpdater;
+    }
+
     @Override
     public Component createComponent(ITEM item) {
         HasComponents container = createWrappingContainer();
+        ComponentUtil.setData((Component) container, ITEM_KEY, item);
 
         final Component target = createTargetComponent(item);
-        target.getElement().addEventListener("click",
-                clickEvent -> generateAndShowPopup(item, container, target));
+        bindTarget(container, target);
         container.add(target);
 
         return (Component) container;
     }
 
+    @Override
+    public Component updateComponent(Component currentComponent, ITEM item) {
+        Component target = (Component) ComponentUtil.getData(currentComponent,
+                TARGET_KEY);
+        if (target == null || !(currentComponent instanceof HasComponents)) {
+            return createComponent(item);
+        }
+        HasComponents container = (HasComponents) currentComponent;
+        ComponentUtil.setData(currentComponent, ITEM_KEY, item);
+
+        Component updated;
+        if (targetUpdater != null) {
+            updated = targetUpdater.apply(target, item);
+        } else {
+            updated = createTargetComponent(item);
+        }
+        if (updated != target) {
+            // keep the id, an open popup is bound to it
+            target.getId().ifPresent(updated::setId);
+            Element containerElement = currentComponent.getElement();
+            containerElement.insertChild(
+                    containerElement.indexOfChild(target.getElement()),
+                    updated.getElement());
+            target.getElement().removeFromParent();
+            bindTarget(container, updated);
+        }
+        return currentComponent;
+    }
+
+    private void bindTarget(HasComponents container, Component target) {
+        ComponentUtil.setData((Component) container, TARGET_KEY, target);
+        target.getElement().addEventListener("click",
+                clickEvent -> generateAndShowPopup(getItem(container),
+                        container, target))
+                .setFilter(CLAIM_OPEN_FILTER);
+    }
+
+    @SuppressWarnings("unchecked")
+    private ITEM getItem(HasComponents container) {
+        return (ITEM) ComponentUtil.getData((Component) container, ITEM_KEY);
+    }
+
     protected Popup createPopup(ITEM item, Component target) {
         Popup popup = itemPopupGenerator.apply(item);
         popup.setFor(target.getId().orElse(null));
+        if (!popup.isNavigationPolicySet()) {
+            // generated popups are never reused, don't let them outlive the view
+            popup.setNavigationPolicy(PopupNavigationPolicy.RELEASE);
+        }
         return popup;
     }
 
@@ -104,19 +195,48 @@ public class ComponentWithPopupRenderer<ITEM> extends ComponentRenderer<Componen
     }
 
     protected void generateAndShowPopup(ITEM item, HasComponents container, Component target) {
-        Popup popup = createPopup(item, target);
-        trackKeyPopupKeyPresses(container, popup);
+        if (ComponentUtil.getData((Component) container, POPUP_KEY) != null) {
+            // a popup of this cell is already pending or open. The click
+            // claimed the target, e.g. one which replaced the target of the
+            // open popup on refresh, so release it again.
+            releaseOpen(target);
+            return;
+        }
+        Popup popup;
+        try {
+            popup = createPopup(item, target);
+        } catch (RuntimeException e) {
+            releaseOpen(target);
+            throw e;
+        }
+        ComponentUtil.setData((Component) container, POPUP_KEY, popup);
+        trackKeyPopupKeyPresses(popup);
         popup.addPopupOpenChangedEventListener(event -> {
             // remove the popup from the DOM tree when it's closed
             if (!event.isOpened()) {
                 container.remove(popup);
             }
         });
+        // also reached when the navigation policy removes the popup
+        popup.addDetachListener(event -> {
+            if (ComponentUtil.getData((Component) container,
+                    POPUP_KEY) == popup) {
+                ComponentUtil.setData((Component) container, POPUP_KEY, null);
+                // the target may have been replaced on refresh meanwhile
+                releaseOpen((Component) ComponentUtil
+                        .getData((Component) container, TARGET_KEY));
+            }
+        });
         container.add(popup);
         popup.show();
     }
 
-    private void trackKeyPopupKeyPresses(HasComponents container, Popup popup) {
+    private void releaseOpen(Component target) {
+        target.getElement().executeJs(
+                "window.Vaadin.Flow.popupConnector.releaseOpen(this)");
+    }
+
+    private void trackKeyPopupKeyPresses(Popup popup) {
         // The following code track individual key presses in the popup overlay.
         // This helps to prevent the following undesired behavior:
         // 1. Focus a grid cell in the grid (not the underlying button)
@@ -128,12 +248,8 @@ public class ComponentWithPopupRenderer<ITEM> extends ComponentRenderer<Componen
         // This closes the popup, but immediately transfers focus to the grid cell - even before the spacebar key is released by the user.
         // So when the spacebar is released by the user, the 'keyup' event is received by the grid cell -> which
         // is caught and causes a call to click() function of the component in the cell (which is a button that again opens the popup)
-        popup.getElement().executeJs("this.$.popupOverlay.addEventListener('keydown', (ev) => {\n" +
-                "      $0.preventPopupOpening=true;\n" +
-                "});", container.getElement());
-
-        popup.getElement().executeJs("this.$.popupOverlay.addEventListener('keyup', (ev) => {\n" +
-                "      $0.preventPopupOpening=false;\n" +
-                "});\n", container.getElement());
+        // The listeners are installed once by popupConnector.js, this only
+        // enables them for the popup, without sending a script.
+        popup.getElement().setProperty("preventReopenOnKey", true);
     }
 }
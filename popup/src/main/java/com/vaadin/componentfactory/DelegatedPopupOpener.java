@@ -0,0 +1,154 @@
+/*
+ * Copyright 2000-2023 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.componentfactory;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.dom.DomListenerRegistration;
+import com.vaadin.flow.function.SerializableFunction;
+
+/**
+ * Opens popups for the items of a large container using a single click
+ * listener on the container, instead of a popup or a listener per item.
+ * <p>
+ * Each clickable child is marked with a key using {@link #setKey(Component, String)},
+ * or with the {@value #KEY_ATTRIBUTE} attribute in client side rendered
+ * content, for example the template of a {@code LitRenderer} in a
+ * {@code VirtualList}. When a marked child is clicked, the key is resolved to
+ * an item, the popup for the item is created with the {@link PopupGenerator}
+ * and opened next to the clicked child. Only one popup is open at a time; it
+ * is removed once it is closed.
+ *
+ * @param <ITEM> the item type
+ * @author Vaadin Ltd
+ */
+public class DelegatedPopupOpener<ITEM> implements Serializable {
+
+    /**
+     * The attribute which marks the children of the container opening a popup.
+     */
+    public static final String KEY_ATTRIBUTE = "data-popup-key";
+
+    private static final String KEY_EXPRESSION = "(event.target.closest('["
+            + KEY_ATTRIBUTE + "]') || event.target).getAttribute('"
+            + KEY_ATTRIBUTE + "')";
+
+    private final Component container;
+    private final SerializableFunction<String, ITEM> itemResolver;
+    private final PopupGenerator<ITEM> popupGenerator;
+    private final DomListenerRegistration registration;
+
+    private Popup popup;
+    private String popupKey;
+
+    /**
+     * Installs the click listener on the given container.
+     *
+     * @param container      the container of the clickable children
+     * @param itemResolver   resolves the key of a clicked child to an item, may
+     *                       return {@code null} to not open a popup
+     * @param popupGenerator creates the popup for an item
+     */
+    public DelegatedPopupOpener(Component container,
+                                SerializableFunction<String, ITEM> itemResolver,
+                                PopupGenerator<ITEM> popupGenerator) {
+        this.container = Objects.requireNonNull(container,
+                "Container should not be null");
+        this.itemResolver = Objects.requireNonNull(itemResolver,
+                "Item resolver should not be null");
+        this.popupGenerator = Objects.requireNonNull(popupGenerator,
+                "Popup generator should not be null");
+
+        registration = container.getElement().addEventListener("click",
+                event -> open(event.getEventData().getString(KEY_EXPRESSION)));
+        registration.addEventData(KEY_EXPRESSION);
+        // clicks outside of marked children don't reach the server
+        registration.setFilter(KEY_EXPRESSION + " !== null");
+    }
+
+    /**
+     * Marks a child of the container, so that clicking it opens the popup for
+     * the item with the given key.
+     *
+     * @param child the child component
+     * @param key   the key passed to the item resolver
+     */
+    public static void setKey(Component child, String key) {
+        child.getElement().setAttribute(KEY_ATTRIBUTE, key);
+    }
+
+    /**
+     * Gets the currently shown popup.
+     *
+     * @return the popup, or {@code null} if no popup is shown
+     */
+    public Popup getPopup() {
+        return popup;
+    }
+
+    /**
+     * Removes the click listener from the container and the shown popup, if
+     * any.
+     */
+    public void remove() {
+        registration.remove();
+        closePopup();
+    }
+
+    private void open(String key) {
+        if (popup != null) {
+            if (key.equals(popupKey) && popup.isOpened()) {
+                return;
+            }
+            closePopup();
+        }
+        ITEM item = itemResolver.apply(key);
+        if (item == null || container.getUI().isEmpty()) {
+            return;
+        }
+
+        Popup opened = popupGenerator.apply(item);
+        opened.setIgnoreTargetClick(true);
+        if (!opened.isNavigationPolicySet()) {
+            opened.setNavigationPolicy(PopupNavigationPolicy.RELEASE);
+        }
+        opened.addPopupOpenChangedEventListener(event -> {
+            if (!event.isOpened() && popup == opened) {
+                closePopup();
+            }
+        });
+        popup = opened;
+        popupKey = key;
+
+        container.getUI().get().add(opened);
+        opened.getElement().executeJs(Popup.whenLoaded(
+                "this.target = $0.querySelector('[" + KEY_ATTRIBUTE
+                        + "=\"' + CSS.escape($1) + '\"]');"),
+                container.getElement(), key);
+        opened.show();
+    }
+
+    private void closePopup() {
+        if (popup != null) {
+            Popup closed = popup;
+            popup = null;
+            popupKey = null;
+            closed.getElement().removeFromParent();
+        }
+    }
+}
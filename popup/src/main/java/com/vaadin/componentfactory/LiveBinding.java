@@ -0,0 +1,194 @@
+/*
+ * Copyright 2000-2023 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.componentfactory;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.UIDetachedException;
+import com.vaadin.flow.function.SerializableConsumer;
+import com.vaadin.flow.server.VaadinService;
+import com.vaadin.flow.server.VaadinSession;
+import com.vaadin.flow.shared.Registration;
+
+/**
+ * Delivers values pushed from background threads to the content of a
+ * {@link Popup}, created by {@link Popup#bindLive(SerializableConsumer, Duration)}.
+ * <p>
+ * Values pushed faster than the minimum interval are coalesced, so only the
+ * latest one is delivered. While the popup is closed nothing is delivered at
+ * all; the latest value is delivered as soon as the popup opens. The updater is
+ * always called with the UI locked, through {@link UI#access(com.vaadin.flow.server.Command)}.
+ * <p>
+ * Deliveries are scheduled on a thread per {@link VaadinService}, which is
+ * stopped when the service is destroyed.
+ *
+ * @param <T> the value type
+ * @author Vaadin Ltd
+ */
+public class LiveBinding<T> implements Serializable {
+
+    // an enum constant, so it stays the same instance when deserialized
+    private enum Pending {
+        NO_VALUE
+    }
+
+    private static final Object NO_VALUE = Pending.NO_VALUE;
+
+    private final Popup popup;
+    private final SerializableConsumer<T> updater;
+    private final long minIntervalNanos;
+    private final AtomicReference<Object> pending = new AtomicReference<>(NO_VALUE);
+    private transient AtomicBoolean scheduled = new AtomicBoolean();
+    private final Registration registration;
+
+    private volatile boolean opened;
+    private volatile boolean removed;
+    private transient volatile long lastDelivery;
+
+    LiveBinding(Popup popup, SerializableConsumer<T> updater,
+                Duration minInterval) {
+        this.popup = popup;
+        this.updater = updater;
+        this.minIntervalNanos = minInterval.toNanos();
+        this.lastDelivery = System.nanoTime() - minIntervalNanos;
+        this.opened = popup.isOpened();
+
+        registration = popup
+                .addPopupOpenChangedEventListener(event -> {
+                    opened = event.isOpened();
+                    if (opened) {
+                        deliver();
+                    }
+                });
+    }
+
+    /**
+     * Pushes a new value. Can be called from any thread.
+     *
+     * @param value the new value
+     */
+    public void push(T value) {
+        if (removed) {
+            return;
+        }
+        pending.set(value);
+        if (opened && scheduled.compareAndSet(false, true)) {
+            long delay = lastDelivery + minIntervalNanos - System.nanoTime();
+            ScheduledExecutorService scheduler = getScheduler();
+            if (scheduler == null) {
+                // detached, delivered when the popup is opened again
+                scheduled.set(false);
+                return;
+            }
+            try {
+                scheduler.schedule(this::flush, Math.max(0, delay),
+                        TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                // the service has been destroyed
+                scheduled.set(false);
+            }
+        }
+    }
+
+    private ScheduledExecutorService getScheduler() {
+        VaadinSession session = popup.getUI().map(UI::getSession)
+                .orElse(null);
+        if (session == null || session.getService() == null) {
+            return null;
+        }
+        return Scheduler.get(session.getService());
+    }
+
+    /**
+     * Stops delivering values and removes the listeners added to the popup.
+     */
+    public void remove() {
+        removed = true;
+        pending.set(NO_VALUE);
+        registration.remove();
+    }
+
+    private void flush() {
+        // looked up on each delivery, so it is also found after the session
+        // has been deserialized
+        UI currentUI = popup.getUI().orElse(null);
+        if (currentUI == null) {
+            scheduled.set(false);
+            return;
+        }
+        try {
+            currentUI.access(() -> {
+                scheduled.set(false);
+                deliver();
+            });
+        } catch (UIDetachedException e) {
+            scheduled.set(false);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void deliver() {
+        if (!opened || removed) {
+            return;
+        }
+        Object value = pending.getAndSet(NO_VALUE);
+        if (value != NO_VALUE) {
+            lastDelivery = System.nanoTime();
+            updater.accept((T) value);
+        }
+    }
+
+    private void readObject(ObjectInputStream in)
+            throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        // a flush scheduled before serialization doesn't exist in this JVM
+        scheduled = new AtomicBoolean();
+        lastDelivery = System.nanoTime() - minIntervalNanos;
+    }
+
+    /**
+     * The delivery thread of the bindings of a Vaadin service. It is stopped
+     * when the service is destroyed, so it doesn't keep the application
+     * loaded after a redeploy.
+     */
+    private static final class Scheduler {
+        private final ScheduledExecutorService executor = Executors
+                .newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "popup-live-binding");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        static ScheduledExecutorService get(VaadinService service) {
+            return service.getContext().getAttribute(Scheduler.class, () -> {
+                Scheduler scheduler = new Scheduler();
+                service.addServiceDestroyListener(
+                        event -> scheduler.executor.shutdownNow());
+                return scheduler;
+            }).executor;
+        }
+    }
+}
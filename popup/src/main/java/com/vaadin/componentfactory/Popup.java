@@ -18,12 +18,26 @@
 package com.vaadin.componentfactory;
 
 import java.io.Serializable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Locale;
 import java.util.Objects;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import org.jsoup.Jsoup;
+import org.jsoup.safety.Safelist;
 
 import com.vaadin.flow.component.AttachEvent;
 import com.vaadin.flow.component.Component;
 import com.vaadin.flow.component.ComponentEvent;
 import com.vaadin.flow.component.ComponentEventListener;
+import com.vaadin.flow.component.ComponentUtil;
+import com.vaadin.flow.component.DetachEvent;
 import com.vaadin.flow.component.DomEvent;
 import com.vaadin.flow.component.EventData;
 import com.vaadin.flow.component.Synchronize;
@@ -32,9 +46,17 @@ import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.dependency.JsModule;
 import com.vaadin.flow.component.dependency.NpmPackage;
 import com.vaadin.flow.component.shared.HasThemeVariant;
+import com.vaadin.flow.component.virtuallist.VirtualList;
+import com.vaadin.flow.data.provider.DataProvider;
+import com.vaadin.flow.function.SerializableConsumer;
+import com.vaadin.flow.function.SerializableFunction;
+import com.vaadin.flow.function.ValueProvider;
 import com.vaadin.flow.dom.Element;
+import com.vaadin.flow.router.AfterNavigationEvent;
 import com.vaadin.flow.shared.Registration;
 
+import elemental.json.JsonObject;
+
 /**
  * Server-side component for the <code>vcf-popup</code> element.
  *
@@ -43,22 +65,56 @@ import com.vaadin.flow.shared.Registration;
 @Tag("vcf-popup")
 @NpmPackage(value = "@vaadin-component-factory/vcf-popup", version = "24.0.3")
 @JsModule("./flow-component-renderer.js")
-@JsModule("@vaadin-component-factory/vcf-popup/src/vcf-popup.js")
+@JsModule("./popupConnector.js")
 public class Popup extends Component implements HasThemeVariant<PopupVariant> {
-    private Element template;
+    private static final AtomicLong releasedPopupCount = new AtomicLong();
+    private static final String OPEN_TRACKING_KEY = Popup.class.getName()
+            + ".openTracking";
+
+    /*
+     * Created on first use: popups rendering HTML, shared or template content
+     * never need it, so a bare popup is a single state node.
+     */
     private Element container;
 
+    /*
+     * The overlay renderer only lives on the client and is re-created on every
+     * attach, so the server keeps just this flag instead of a <template> node.
+     */
+    private boolean rendererAttached;
+
+    private String htmlContent;
+
+    private String sharedContentKey;
+    private SerializableFunction<Locale, String> sharedContentRenderer;
+
+    private PopupTemplate contentTemplate;
+    private JsonObject contentValues;
+
+    private boolean contentActive;
+    // only installed once content implementing ActivatablePopupContent is added
+    private Registration activationRegistration;
+
+    // bookkeeping for PopupDiagnostics
+    private boolean shown;
+    private long closedSince;
+    // only installed once PopupStack or PopupDiagnostics is used in the UI
+    private Registration openTrackingRegistration;
+
+    private PopupGroup group;
+
+    private Registration timingRegistration;
+
+    // null until set, so generated popups can tell the default from KEEP
+    private PopupNavigationPolicy navigationPolicy;
+    private Registration navigationRegistration;
+
     private Popup.PopupHeader popupHeader;
     private Popup.PopupFooter popupFooter;
     
     private Element target = null;
 
     public Popup() {
-        template = new Element("template");
-
-        container = new Element("div");
-        getElement().appendVirtualChild(container);
-
         // Workaround for: https://github.com/vaadin/flow/issues/3496
         setOpened(false);
     }
@@ -76,18 +132,84 @@ public class Popup extends Component implements HasThemeVariant<PopupVariant> {
         return addListener(PopupOpenChangedEvent.class, listener);
     }
 
+    /**
+     * Creates a binding for updating the popup content with values produced
+     * by background threads, for example live figures.
+     * <p>
+     * Values pushed to the returned binding are delivered to the
+     * {@code updater} at most once per {@code minInterval}; values pushed in
+     * between are coalesced and only the latest one is delivered. While the
+     * popup is closed no values are delivered; the latest one is delivered
+     * when the popup opens. The updater runs with the UI locked, so it can
+     * update the popup content directly.
+     *
+     * @param updater     applies a value to the popup content
+     * @param minInterval the minimum time between two deliveries
+     * @param <T>         the value type
+     * @return the binding to push the values to
+     */
+    public <T> LiveBinding<T> bindLive(SerializableConsumer<T> updater,
+                                       Duration minInterval) {
+        Objects.requireNonNull(updater, "Updater should not be null");
+        Objects.requireNonNull(minInterval, "Interval should not be null");
+        return new LiveBinding<>(this, updater, minInterval);
+    }
+
+    /**
+     * Opens the popup at the given point, instead of at its target element.
+     * <p>
+     * The coordinates are relative to the viewport, as {@code clientX} and
+     * {@code clientY} of a mouse event, which makes it possible to open popups
+     * for hotspots of a canvas or a chart without a target component per
+     * hotspot. The position and alignment of the popup are applied as if the
+     * point was its target.
+     *
+     * @param x the horizontal coordinate in pixels
+     * @param y the vertical coordinate in pixels
+     * @see #showAt(double, double, double, double)
+     */
+    public void showAt(double x, double y) {
+        showAt(x, y, 0, 0);
+    }
+
+    /**
+     * Opens the popup anchored to the given rectangle, instead of at its
+     * target element.
+     * <p>
+     * The coordinates are relative to the viewport. The position and alignment
+     * of the popup are applied as if the rectangle was its target. The popup
+     * stays anchored to the rectangle until it is closed; then its target, if
+     * any, applies again.
+     *
+     * @param x      the left edge of the rectangle in pixels
+     * @param y      the top edge of the rectangle in pixels
+     * @param width  the width of the rectangle in pixels
+     * @param height the height of the rectangle in pixels
+     */
+    public void showAt(double x, double y, double width, double height) {
+        if (width < 0 || height < 0) {
+            throw new IllegalArgumentException(
+                    "The anchor width and height cannot be negative");
+        }
+        shown = true;
+        getElement().executeJs(whenLoaded(
+                "window.Vaadin.Flow.popupConnector.showAt(this, $0, $1, $2, $3)"),
+                x, y, width, height);
+    }
+
     /**
      * Showing popup, if not showed yet.
      */
     public void show() {
-        getElement().callJsFunction("show");
+        shown = true;
+        getElement().executeJs(whenLoaded("this.show()"));
     }
 
     /**
      * Hiding popup, if it's open.
      */
     public void hide() {
-        getElement().callJsFunction("hide");
+        getElement().executeJs(whenLoaded("this.hide()"));
     }
 
     /**
@@ -97,7 +219,7 @@ public class Popup extends Component implements HasThemeVariant<PopupVariant> {
      */
     public void setOpened(boolean opened) {
         getElement().setProperty("opened", opened);
-        if (template.getProperty("innerHTML", false)) {
+        if (rendererAttached) {
             if (opened) {
                 show();
             } else {
@@ -111,7 +233,7 @@ public class Popup extends Component implements HasThemeVariant<PopupVariant> {
      *
      * @return the {@code opened} property from the popup
      */
-    @Synchronize(value="popup-open-changed", property="detail.opened")
+    @Synchronize(value="popup-open-changed", property="opened")
     public boolean isOpened() {
         return getElement().getProperty("opened", false);
     }
@@ -129,13 +251,80 @@ public class Popup extends Component implements HasThemeVariant<PopupVariant> {
         getElement().setProperty("for", id);
     }
 
+    /**
+     * Sets what this popup does when the user navigates away from the current
+     * view, or when it is detached. Popups which are not part of a view, for
+     * example popups added directly to the UI, otherwise stay attached and
+     * referenced for the whole lifetime of the UI.
+     * <p>
+     * The policy is applied once the navigation has happened, so a navigation
+     * which is postponed or cancelled leaves the popup as it is. Popups within
+     * a router layout which is still shown after the navigation are left as
+     * they are as well.
+     *
+     * @param navigationPolicy the policy, not {@code null}
+     * @see PopupNavigationPolicy
+     */
+    public void setNavigationPolicy(PopupNavigationPolicy navigationPolicy) {
+        this.navigationPolicy = Objects.requireNonNull(navigationPolicy,
+                "Navigation policy should not be null");
+        updateNavigationListener();
+    }
+
+    /**
+     * Gets what this popup does when the user navigates away from the current
+     * view.
+     *
+     * @return the navigation policy, {@link PopupNavigationPolicy#KEEP} by
+     *         default
+     */
+    public PopupNavigationPolicy getNavigationPolicy() {
+        return navigationPolicy == null ? PopupNavigationPolicy.KEEP
+                : navigationPolicy;
+    }
+
+    boolean isNavigationPolicySet() {
+        return navigationPolicy != null;
+    }
+
+    /**
+     * Gets the number of popups which have been released on navigation by the
+     * {@link PopupNavigationPolicy#RELEASE} policy in this JVM.
+     *
+     * @return the number of released popups
+     */
+    public static long getReleasedPopupCount() {
+        return releasedPopupCount.get();
+    }
+
     @Override
-    protected void onAttach(AttachEvent attachEvent) { 
-        getElement().appendChild(template);        
-        
+    protected void onAttach(AttachEvent attachEvent) {
+        updateNavigationListener();
+        getAttachedPopups(attachEvent.getUI()).add(this);
+        if (!isOpened()) {
+            closedSince = System.currentTimeMillis();
+        }
+        if (ComponentUtil.getData(attachEvent.getUI(),
+                OPEN_TRACKING_KEY) != null) {
+            initOpenTracking();
+        }
+
+        if (getRepositionMode() == PopupRepositionMode.FRAME) {
+            initPositioning();
+        }
+        if (group != null) {
+            initGroup();
+        }
+        if (isFocusTrapCaching()) {
+            initFocusTrap();
+        }
+        if (!getTimingListeners(attachEvent.getUI()).isEmpty()) {
+            initTiming();
+        }
+
         // set target if it was defined
         if(this.target != null) {
-          getElement().executeJs("this.target = $0", this.target);
+          getElement().executeJs(whenLoaded("this.target = $0"), this.target);
         }
 
         // Attach <flow-component-renderer>
@@ -144,18 +333,159 @@ public class Popup extends Component implements HasThemeVariant<PopupVariant> {
                         context -> attachComponentRenderer()));
        
         String id = getFor();
-        if (template.getProperty("innerHTML", false)) {
+        if (rendererAttached) {
             if (id == null && this.target == null) {
-                getElement().callJsFunction("disconnectedCallback");
+                getElement().executeJs(whenLoaded("this.disconnectedCallback()"));
             } else {
-                getElement().callJsFunction("connectedCallback");
-                if(this.getHeader().isRendererCreated()) {
-                  this.getHeader().initRenderer();
+                getElement().executeJs(whenLoaded("this.connectedCallback()"));
+                if (popupHeader != null && popupHeader.isRendererCreated()) {
+                    popupHeader.initRenderer();
                 }
-                if(this.getFooter().isRendererCreated()) {
-                  this.getFooter().initRenderer();
-                }               
+                if (popupFooter != null && popupFooter.isRendererCreated()) {
+                    popupFooter.initRenderer();
+                }
+            }
+        }
+    }
+
+    @Override
+    protected void onDetach(DetachEvent detachEvent) {
+        getAttachedPopups(detachEvent.getUI()).remove(this);
+        PopupStack.update(detachEvent.getUI(), this, false);
+        if (navigationRegistration != null) {
+            navigationRegistration.remove();
+            navigationRegistration = null;
+        }
+        if (navigationPolicy == PopupNavigationPolicy.RELEASE) {
+            if (container != null) {
+                container.removeAllChildren();
+            }
+            htmlContent = null;
+            sharedContentKey = null;
+            sharedContentRenderer = null;
+            contentTemplate = null;
+            contentValues = null;
+            if (popupHeader != null) {
+                popupHeader.getElement().removeAllChildren();
+                popupHeader.setRendererCreated(false);
             }
+            if (popupFooter != null) {
+                popupFooter.getElement().removeAllChildren();
+                popupFooter.setRendererCreated(false);
+            }
+        }
+    }
+
+    /**
+     * Gets the popups attached to the given UI, in attach order.
+     *
+     * @param ui the UI
+     * @return the mutable set of attached popups
+     */
+    @SuppressWarnings("unchecked")
+    static Set<Popup> getAttachedPopups(UI ui) {
+        Set<Popup> popups = (Set<Popup>) ComponentUtil.getData(ui,
+                Popup.class.getName());
+        if (popups == null) {
+            popups = new LinkedHashSet<>();
+            ComponentUtil.setData(ui, Popup.class.getName(), popups);
+        }
+        return popups;
+    }
+
+    /**
+     * Tracks the open state of the popups of the given UI from now on, for
+     * {@link PopupStack} and {@link PopupDiagnostics}. Popups of UIs which use
+     * neither don't listen to their open changed events.
+     *
+     * @param ui the UI
+     */
+    static void trackOpenState(UI ui) {
+        if (ComponentUtil.getData(ui, OPEN_TRACKING_KEY) == null) {
+            ComponentUtil.setData(ui, OPEN_TRACKING_KEY, Boolean.TRUE);
+            getAttachedPopups(ui).forEach(Popup::initOpenTracking);
+        }
+    }
+
+    private void initOpenTracking() {
+        if (openTrackingRegistration == null) {
+            openTrackingRegistration = addPopupOpenChangedEventListener(
+                    event -> {
+                        if (event.isOpened()) {
+                            shown = true;
+                        } else {
+                            closedSince = System.currentTimeMillis();
+                        }
+                        getUI().ifPresent(ui -> PopupStack.update(ui, this,
+                                event.isOpened()));
+                    });
+        }
+    }
+
+    boolean isShown() {
+        // popups opened by the client are only seen while open, unless their
+        // open state is tracked
+        return shown || isOpened();
+    }
+
+    long getClosedSince() {
+        return closedSince;
+    }
+
+    /**
+     * Gets the element holding the content components.
+     *
+     * @return the container element, or {@code null} if no component has been
+     *         added yet
+     */
+    Element getContainer() {
+        return container;
+    }
+
+    private Element getOrCreateContainer() {
+        if (container == null) {
+            container = new Element("div");
+            getElement().appendVirtualChild(container);
+            // the renderer attached so far doesn't reference the container
+            updateRenderer();
+        }
+        return container;
+    }
+
+    Popup.PopupHeader getHeaderIfCreated() {
+        return popupHeader;
+    }
+
+    Popup.PopupFooter getFooterIfCreated() {
+        return popupFooter;
+    }
+
+    private void updateNavigationListener() {
+        boolean needed = getNavigationPolicy() != PopupNavigationPolicy.KEEP;
+        if (needed && navigationRegistration == null) {
+            getUI().ifPresent(ui -> navigationRegistration = ui
+                    .addAfterNavigationListener(this::applyNavigationPolicy));
+        } else if (!needed && navigationRegistration != null) {
+            navigationRegistration.remove();
+            navigationRegistration = null;
+        }
+    }
+
+    private void applyNavigationPolicy(AfterNavigationEvent event) {
+        // popups within a layout which is still shown haven't been left
+        Set<Element> activeChain = new HashSet<>();
+        event.getActiveChain()
+                .forEach(element -> activeChain.add(element.getElement()));
+        for (Element parent = getElement().getParent(); parent != null;
+                parent = parent.getParent()) {
+            if (activeChain.contains(parent)) {
+                return;
+            }
+        }
+        setOpened(false);
+        if (navigationPolicy == PopupNavigationPolicy.RELEASE) {
+            releasedPopupCount.incrementAndGet();
+            getElement().removeFromParent();
         }
     }
 
@@ -265,6 +595,58 @@ public class Popup extends Component implements HasThemeVariant<PopupVariant> {
         return getElement().getProperty("closeOnScroll", false);
     }
 
+    /**
+     * Sets how the popup follows its target while it is open and the page is
+     * scrolled or resized. Default is {@link PopupRepositionMode#IMMEDIATE}.
+     * <p>
+     * Only has an effect when the popup is not closed on scroll, see
+     * {@link #setCloseOnScroll(boolean)}.
+     *
+     * @param mode the reposition mode, not {@code null}
+     */
+    public void setRepositionMode(PopupRepositionMode mode) {
+        Objects.requireNonNull(mode, "Reposition mode should not be null");
+        getElement().setProperty("repositionMode",
+                mode.name().toLowerCase(Locale.ENGLISH));
+        if (mode == PopupRepositionMode.FRAME && isAttached()) {
+            initPositioning();
+        }
+    }
+
+    /**
+     * Gets how the popup follows its target.
+     *
+     * @return the reposition mode
+     */
+    public PopupRepositionMode getRepositionMode() {
+        return PopupRepositionMode.valueOf(getElement()
+                .getProperty("repositionMode", "immediate")
+                .toUpperCase(Locale.ENGLISH));
+    }
+
+    /**
+     * Sets whether the popup is closed when its target leaves the viewport.
+     * Default is false.
+     * <p>
+     * Only has an effect with {@link PopupRepositionMode#FRAME}.
+     *
+     * @param close true to close the popup when its target is scrolled out of
+     *              view
+     */
+    public void setCloseOnTargetHidden(boolean close) {
+        getElement().setProperty("closeOnTargetHidden", close);
+    }
+
+    /**
+     * Gets whether the popup is closed when its target leaves the viewport.
+     *
+     * @return true if the popup is closed when its target is scrolled out of
+     *         view
+     */
+    public boolean isCloseOnTargetHidden() {
+        return getElement().getProperty("closeOnTargetHidden", false);
+    }
+
     /**
      * Sets whether popup will open modal or modeless.
      * <p>
@@ -306,6 +688,34 @@ public class Popup extends Component implements HasThemeVariant<PopupVariant> {
         return getElement().getProperty("focusTrap", false);
     }
 
+    /**
+     * When true, the focus trap keeps a list of the tabbable elements of the
+     * popup, which is only rebuilt when the popup content changes, instead of
+     * searching the content on every Tab key press. Recommended for large
+     * popups, such as forms with many fields. Default is false.
+     * <p>
+     * Only tabbable elements in the light DOM of the popup content are
+     * considered. Only has an effect with {@link #setFocusTrap(boolean)}.
+     *
+     * @param caching {@code true} to cache the tabbable elements
+     */
+    public void setFocusTrapCaching(boolean caching) {
+        getElement().setProperty("focusTrapCaching", caching);
+        if (caching && isAttached()) {
+            initFocusTrap();
+        }
+    }
+
+    /**
+     * Gets whether the focus trap caches the tabbable elements of the popup
+     * (see {@link Popup#setFocusTrapCaching(boolean)}).
+     *
+     * @return {@code true} if the tabbable elements are cached
+     */
+    public boolean isFocusTrapCaching() {
+        return getElement().getProperty("focusTrapCaching", false);
+    }
+
     /**
      * When true, the popup target element will be highlighted, to make it absolutely clear what element the popup refers to.
      * Handy for example when implementing walkthrough scenario (also known as onboarding).
@@ -355,7 +765,8 @@ public class Popup extends Component implements HasThemeVariant<PopupVariant> {
         for (Component component : components) {
             Objects.requireNonNull(component,
                     "Component to add cannot be null");
-            container.appendChild(component.getElement());
+            getOrCreateContainer().appendChild(component.getElement());
+            contentAdded(component);
         }
     }
 
@@ -370,7 +781,8 @@ public class Popup extends Component implements HasThemeVariant<PopupVariant> {
         for (Component component : components) {
             Objects.requireNonNull(component,
                     "Component to remove cannot be null");
-            if (container.equals(component.getElement().getParent())) {
+            if (container != null
+                    && container.equals(component.getElement().getParent())) {
                 container.removeChild(component.getElement());
             } else {
                 throw new IllegalArgumentException("The given component ("
@@ -383,7 +795,9 @@ public class Popup extends Component implements HasThemeVariant<PopupVariant> {
      * Removes all components from popup
      */
     public void removeAll() {
-        container.removeAllChildren();
+        if (container != null) {
+            container.removeAllChildren();
+        }
     }
 
     /**
@@ -404,7 +818,166 @@ public class Popup extends Component implements HasThemeVariant<PopupVariant> {
         }
         // The case when the index is bigger than the children count is handled
         // inside the method below
-        container.insertChild(index, component.getElement());
+        getOrCreateContainer().insertChild(index, component.getElement());
+        contentAdded(component);
+    }
+
+    /**
+     * Sets static HTML to be rendered as the popup content instead of the
+     * components added with {@link #add(Component...)}.
+     * <p>
+     * The markup is sanitized on the server and sent to the client when the
+     * popup is attached. It is rendered straight into the overlay, so no server
+     * side components or state nodes are created for it. This is the cheapest
+     * way to show static text such as help or tooltips. Use {@code null} to
+     * render the added components again.
+     *
+     * @param html the HTML content, or {@code null} to clear it
+     */
+    public void setHtmlContent(String html) {
+        htmlContent = html == null ? null : Jsoup.clean(html, Safelist.relaxed());
+        sharedContentKey = null;
+        sharedContentRenderer = null;
+        contentTemplate = null;
+        contentValues = null;
+        updateRenderer();
+    }
+
+    /**
+     * Gets the sanitized static HTML content of the popup.
+     *
+     * @return the HTML content, or {@code null} if the popup renders its
+     *         components
+     * @see #setHtmlContent(String)
+     */
+    public String getHtmlContent() {
+        return htmlContent;
+    }
+
+    /**
+     * Sets immutable HTML content shared by all sessions as the popup content,
+     * instead of the components added with {@link #add(Component...)}.
+     * <p>
+     * The content is rendered once per key and locale and kept in the JVM wide
+     * {@link PopupContentCache}, so the popup only keeps the key. Use it for
+     * content which is the same for every user of a locale, such as help or
+     * glossary texts. The popup uses the locale of its UI. Use {@code null} as
+     * the key to render the added components again.
+     *
+     * @param key      the content key, or {@code null} to clear it
+     * @param renderer renders the HTML content for a locale; it should not
+     *                 capture session specific state
+     */
+    public void setSharedContent(String key,
+            SerializableFunction<Locale, String> renderer) {
+        sharedContentKey = key;
+        sharedContentRenderer = key == null ? null
+                : Objects.requireNonNull(renderer,
+                        "Renderer should not be null");
+        htmlContent = null;
+        contentTemplate = null;
+        contentValues = null;
+        updateRenderer();
+    }
+
+    /**
+     * Gets the key of the shared content of the popup.
+     *
+     * @return the content key, or {@code null} if no shared content is used
+     * @see #setSharedContent(String, SerializableFunction)
+     */
+    public String getSharedContentKey() {
+        return sharedContentKey;
+    }
+
+    /**
+     * Renders the given template filled with the given values as the popup
+     * content, instead of the components added with {@link #add(Component...)}.
+     * <p>
+     * The template markup is sent to the client only once per UI, so the
+     * popup itself only transfers the values. Clicks on template elements with
+     * a {@code data-action} attribute are reported by
+     * {@link #addTemplateActionListener(ComponentEventListener)}.
+     *
+     * @param template the template to render, or {@code null} to render the
+     *                 added components again
+     * @param values   the values to fill into the template, keyed by the
+     *                 {@code data-bind} attribute values
+     */
+    public void setTemplateContent(PopupTemplate template, JsonObject values) {
+        contentTemplate = template;
+        contentValues = template == null ? null : Objects.requireNonNull(values,
+                "Template values should not be null");
+        htmlContent = null;
+        sharedContentKey = null;
+        sharedContentRenderer = null;
+        updateRenderer();
+    }
+
+    /**
+     * Gets the template rendered as the popup content.
+     *
+     * @return the template, or {@code null} if no template is used
+     * @see #setTemplateContent(PopupTemplate, JsonObject)
+     */
+    public PopupTemplate getContentTemplate() {
+        return contentTemplate;
+    }
+
+    /**
+     * Adds a listener for clicks on elements of the content template that have
+     * a {@code data-action} attribute.
+     *
+     * @param listener the listener
+     * @return a {@link Registration} for removing the event listener
+     * @see #setTemplateContent(PopupTemplate, JsonObject)
+     */
+    public Registration addTemplateActionListener(
+            ComponentEventListener<PopupTemplateActionEvent> listener) {
+        return addListener(PopupTemplateActionEvent.class, listener);
+    }
+
+    /**
+     * Replaces the popup content with a virtualized list of the items of the
+     * given data provider.
+     * <p>
+     * Only the rows visible in the overlay are rendered, and the items are
+     * fetched page by page while the user scrolls, so opening the popup costs
+     * the same regardless of the number of items. The rows are rendered on the
+     * client from the text of each item; no server side component is created
+     * per row.
+     * <p>
+     * The list gets a default height, since a virtualized list needs a
+     * bounded viewport. Use the returned list to change the height or the
+     * renderer.
+     *
+     * @param dataProvider  the data provider of the items, not {@code null}
+     * @param textGenerator generates the text shown for an item, not
+     *                      {@code null}
+     * @param <T>           the item type
+     * @return the list added as the popup content
+     */
+    public <T> VirtualList<T> setVirtualListContent(
+            DataProvider<T, ?> dataProvider,
+            ValueProvider<T, String> textGenerator) {
+        Objects.requireNonNull(dataProvider, "Data provider should not be null");
+        Objects.requireNonNull(textGenerator,
+                "Text generator should not be null");
+        VirtualList<T> list = new VirtualList<>();
+        list.setDataProvider(dataProvider);
+        list.setRenderer(textGenerator);
+        list.setHeight("20rem");
+        list.setWidth("25rem");
+
+        htmlContent = null;
+        sharedContentKey = null;
+        sharedContentRenderer = null;
+        contentTemplate = null;
+        contentValues = null;
+        removeAll();
+        add(list);
+        updateRenderer();
+        return list;
     }
 
     /**
@@ -532,6 +1105,9 @@ public class Popup extends Component implements HasThemeVariant<PopupVariant> {
                 Objects.requireNonNull(component,
                         "Component to add cannot be null");
                 root.appendChild(component.getElement());
+                if (popup instanceof Popup) {
+                    ((Popup) popup).contentAdded(component);
+                }
             }
             if (!isRendererCreated()) {
                 initRenderer();
@@ -557,8 +1133,8 @@ public class Popup extends Component implements HasThemeVariant<PopupVariant> {
                 }
             }
             if (root.getChildCount() == 0) {
-                popup.getElement()
-                        .executeJs("this." + rendererFunction + " = null;");
+                popup.getElement().executeJs(
+                        whenLoaded("this." + rendererFunction + " = null;"));
                 setRendererCreated(false);
             }
         }
@@ -568,8 +1144,8 @@ public class Popup extends Component implements HasThemeVariant<PopupVariant> {
          */
         public void removeAll() {
             root.removeAllChildren();
-            popup.getElement()
-                    .executeJs("this." + rendererFunction + " = null;");
+            popup.getElement().executeJs(
+                    whenLoaded("this." + rendererFunction + " = null;"));
             setRendererCreated(false);
         }
 
@@ -582,9 +1158,9 @@ public class Popup extends Component implements HasThemeVariant<PopupVariant> {
                 return;
             }
             popup.getElement().appendChild(root);
-            popup.getElement().executeJs("this." + rendererFunction
+            popup.getElement().executeJs(whenLoaded("this." + rendererFunction
                     + " = (root) => {" + "if (root.firstChild) { "
-                    + "   return;" + "}" + "root.appendChild($0);" + "}", root);
+                    + "   return;" + "}" + "root.appendChild($0);" + "}"), root);
             setRendererCreated(true);
         }
 
@@ -617,13 +1193,202 @@ public class Popup extends Component implements HasThemeVariant<PopupVariant> {
     }
 
 
+    /**
+     * Wraps a JavaScript expression operating on the {@code vcf-popup} element
+     * so that it runs only once the web component has been loaded. The web
+     * component is loaded lazily by {@code popupConnector.js} when the first
+     * popup is attached.
+     *
+     * @param expression the expression to run, {@code this} refers to the
+     *                   popup element
+     * @return the wrapped expression
+     */
+    static String whenLoaded(String expression) {
+        return "window.Vaadin.Flow.popupConnector.run(() => {" + expression
+                + "});";
+    }
+
+    /**
+     * Starts tracking activation once a component implementing
+     * {@link ActivatablePopupContent} is added, and activates the added
+     * component right away if the popup is open.
+     */
+    void contentAdded(Component component) {
+        if (!containsActivatable(component)) {
+            return;
+        }
+        if (activationRegistration == null) {
+            activationRegistration = Registration.combine(
+                    addPopupOpenChangedEventListener(
+                            event -> setContentActive(event.isOpened())),
+                    addDetachListener(event -> setContentActive(false)));
+            setContentActive(isAttached() && isOpened());
+        } else if (contentActive) {
+            notifyActivation(component, true);
+        }
+    }
+
+    private static boolean containsActivatable(Component component) {
+        return component instanceof ActivatablePopupContent
+                || component.getChildren()
+                        .anyMatch(Popup::containsActivatable);
+    }
+
+    private void setContentActive(boolean active) {
+        if (contentActive == active) {
+            return;
+        }
+        contentActive = active;
+        Stream.of(container,
+                        popupHeader == null ? null : popupHeader.getElement(),
+                        popupFooter == null ? null : popupFooter.getElement())
+                .filter(Objects::nonNull)
+                .flatMap(Element::getChildren)
+                .flatMap(element -> element.getComponent().stream())
+                .forEach(component -> notifyActivation(component, active));
+    }
+
+    private void notifyActivation(Component component, boolean active) {
+        if (component instanceof ActivatablePopupContent) {
+            if (active) {
+                ((ActivatablePopupContent) component).onPopupActivated(this);
+            } else {
+                ((ActivatablePopupContent) component).onPopupDeactivated(this);
+            }
+        }
+        component.getChildren()
+                .forEach(child -> notifyActivation(child, active));
+    }
+
+    /**
+     * Adds a listener for the timings of popups measured in the browsers of
+     * the users: the time from the click or key press that opened a popup
+     * until it is painted, and the time spent rendering popup content.
+     * <p>
+     * The browser aggregates the samples of all popups of a UI and sends them
+     * in batches together with the open changed events of the popups, so
+     * measuring doesn't add requests. Timings are measured for the popups of
+     * the UI once the first listener has been added.
+     * <p>
+     * The listener only receives the timings of the given UI, and is released
+     * with it. To collect the timings of the whole application, add a
+     * listener to every UI from a
+     * {@link com.vaadin.flow.server.UIInitListener}.
+     *
+     * @param ui       the UI to measure the popups of
+     * @param listener the listener
+     * @return a {@link Registration} for removing the listener
+     */
+    public static Registration addTimingListener(UI ui,
+            PopupTimingListener listener) {
+        Objects.requireNonNull(ui, "UI should not be null");
+        Objects.requireNonNull(listener, "Listener should not be null");
+        List<PopupTimingListener> listeners = getTimingListeners(ui);
+        listeners.add(listener);
+        if (listeners.size() == 1) {
+            getAttachedPopups(ui).forEach(Popup::initTiming);
+        }
+        return () -> listeners.remove(listener);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<PopupTimingListener> getTimingListeners(UI ui) {
+        List<PopupTimingListener> listeners = (List<PopupTimingListener>) ComponentUtil
+                .getData(ui, PopupTimingListener.class.getName());
+        if (listeners == null) {
+            listeners = new ArrayList<>();
+            ComponentUtil.setData(ui, PopupTimingListener.class.getName(),
+                    listeners);
+        }
+        return listeners;
+    }
+
+    private void initTiming() {
+        if (timingRegistration == null) {
+            timingRegistration = addListener(PopupTimingEvent.class,
+                    event -> {
+                        getUI().ifPresent(ui -> {
+                            PopupTimings timings = new PopupTimings(ui,
+                                    event.getDetail());
+                            new ArrayList<>(getTimingListeners(ui)).forEach(
+                                    listener -> listener.onTimings(timings));
+                        });
+                    });
+            getElement().setProperty("timingEnabled", true);
+        }
+        getElement().executeJs(whenLoaded(
+                "window.Vaadin.Flow.popupConnector.initTiming(this)"));
+    }
+
+    /**
+     * Gets the group this popup belongs to.
+     *
+     * @return the group, or {@code null} if the popup doesn't belong to a
+     *         group
+     * @see PopupGroup#add(Popup...)
+     */
+    public PopupGroup getGroup() {
+        return group;
+    }
+
+    void setGroup(PopupGroup group) {
+        this.group = group;
+        if (group == null) {
+            getElement().removeProperty("group");
+        } else {
+            getElement().setProperty("group", group.getId());
+            if (isAttached()) {
+                initGroup();
+            }
+        }
+    }
+
+    private void initGroup() {
+        getElement().executeJs(whenLoaded(
+                "window.Vaadin.Flow.popupConnector.initGroup(this)"));
+    }
+
+    private void initFocusTrap() {
+        getElement().executeJs(whenLoaded(
+                "window.Vaadin.Flow.popupConnector.initFocusTrap(this)"));
+    }
+
+    private void initPositioning() {
+        getElement().executeJs(whenLoaded(
+                "window.Vaadin.Flow.popupConnector.initPositioning(this)"));
+    }
+
+    private void updateRenderer() {
+        getUI().ifPresent(ui -> ui.beforeClientResponse(this,
+                context -> attachComponentRenderer()));
+    }
+
     private void attachComponentRenderer() {
-        String appId = UI.getCurrent().getInternals().getAppId();
-        int nodeId = container.getNode().getId();
-        String renderer = String.format(
-                "<flow-component-renderer appid=\"%s\" nodeid=\"%s\"></flow-component-renderer>",
-                appId, nodeId);
-        template.setProperty("innerHTML", renderer);
+        if (contentTemplate != null) {
+            contentTemplate.register(UI.getCurrent());
+            getElement().executeJs(whenLoaded("this.$.popupOverlay.renderer = (root) => "
+                    + "window.Vaadin.Flow.popupConnector.renderTemplate(root, this, $0, $1);"),
+                    contentTemplate.getId(), contentValues);
+        } else {
+            String renderer = htmlContent;
+            if (sharedContentKey != null) {
+                renderer = PopupContentCache.getInstance().get(
+                        sharedContentKey, getLocale(), sharedContentRenderer);
+            }
+            if (renderer == null && container == null) {
+                renderer = "";
+            } else if (renderer == null) {
+                String appId = UI.getCurrent().getInternals().getAppId();
+                int nodeId = container.getNode().getId();
+                renderer = String.format(
+                        "<flow-component-renderer appid=\"%s\" nodeid=\"%s\"></flow-component-renderer>",
+                        appId, nodeId);
+            }
+            getElement().executeJs(whenLoaded(
+                    "this.$.popupOverlay.renderer = (root) => { root.innerHTML = $0; }"),
+                    renderer);
+        }
+        rendererAttached = true;
         if (isOpened()) {
             show();
         }
@@ -646,4 +1411,55 @@ public class Popup extends Component implements HasThemeVariant<PopupVariant> {
         }
     }
 
+    /**
+     * Carries a batch of timings measured in the browser.
+     *
+     * @see #addTimingListener(UI, PopupTimingListener)
+     */
+    @DomEvent("popup-timing")
+    public static class PopupTimingEvent extends ComponentEvent<Popup> {
+
+        private final JsonObject detail;
+
+        public PopupTimingEvent(Popup source,
+                                boolean fromClient,
+                                @EventData("event.detail") JsonObject detail) {
+            super(source, fromClient);
+            this.detail = detail;
+        }
+
+        JsonObject getDetail() {
+            return detail;
+        }
+    }
+
+    /**
+     * Fired when an element with a {@code data-action} attribute is clicked in
+     * the content template of the popup.
+     *
+     * @see #setTemplateContent(PopupTemplate, JsonObject)
+     */
+    @DomEvent("popup-template-action")
+    public static class PopupTemplateActionEvent extends ComponentEvent<Popup> {
+
+        private final String action;
+
+        public PopupTemplateActionEvent(Popup source,
+                                        boolean fromClient,
+                                        @EventData("event.detail.action") String action) {
+            super(source, fromClient);
+            this.action = action;
+        }
+
+        /**
+         * Gets the value of the {@code data-action} attribute of the clicked
+         * element.
+         *
+         * @return the action key
+         */
+        public String getAction() {
+            return action;
+        }
+    }
+
 }
\ No newline at end of file
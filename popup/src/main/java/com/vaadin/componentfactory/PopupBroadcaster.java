@@ -0,0 +1,341 @@
+/*
+ * Copyright 2000-2023 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.componentfactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.vaadin.flow.component.ComponentEventListener;
+import com.vaadin.flow.component.DetachEvent;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.UIDetachedException;
+import com.vaadin.flow.function.SerializableFunction;
+import com.vaadin.flow.server.VaadinService;
+import com.vaadin.flow.shared.Registration;
+
+/**
+ * Shows a popup, such as a maintenance announcement, in many UIs at once.
+ * <p>
+ * The content is described once, as HTML, and kept in the
+ * {@link PopupContentCache}, so every UI only gets a lightweight popup which
+ * references it. Delivery is spread over a bounded pool of threads; each task
+ * delivers to a batch of UIs through {@link UI#access(com.vaadin.flow.server.Command)},
+ * skipping UIs which have been detached in the meantime. The popup shows up
+ * immediately in UIs with server push enabled, otherwise with the next
+ * request of the UI.
+ * <p>
+ * UIs have to be registered to receive broadcasts, either one by one with
+ * {@link #register(UI)}, or all UIs of the application with
+ * {@link #registerAll(VaadinService)}. A broadcaster is typically a singleton
+ * of the application; call {@link #shutdown()} when the application stops.
+ *
+ * @author Vaadin Ltd
+ */
+public class PopupBroadcaster {
+
+    /**
+     * The default number of delivery threads.
+     */
+    public static final int DEFAULT_THREADS = 2;
+
+    /**
+     * The default number of UIs a delivery task handles.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 100;
+
+    private final Set<UI> uis = ConcurrentHashMap.newKeySet();
+    private final ExecutorService executor;
+    private final int batchSize;
+
+    /**
+     * Creates a broadcaster with {@value #DEFAULT_THREADS} delivery threads
+     * and batches of {@value #DEFAULT_BATCH_SIZE} UIs.
+     */
+    public PopupBroadcaster() {
+        this(DEFAULT_THREADS, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Creates a broadcaster.
+     *
+     * @param threads   the number of delivery threads, at least 1
+     * @param batchSize the number of UIs a delivery task handles, at least 1
+     */
+    public PopupBroadcaster(int threads, int batchSize) {
+        if (threads < 1 || batchSize < 1) {
+            throw new IllegalArgumentException(
+                    "The number of threads and the batch size should be at least 1");
+        }
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable,
+                    "popup-broadcast-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Registers a UI to receive broadcasts. The UI is unregistered
+     * automatically when it is detached.
+     *
+     * @param ui the UI
+     * @return a {@link Registration} for unregistering the UI
+     */
+    public Registration register(UI ui) {
+        Objects.requireNonNull(ui, "UI should not be null");
+        uis.add(ui);
+        Registration detachRegistration = ui
+                .addDetachListener(new UnregisterOnDetach(uis));
+        return () -> {
+            uis.remove(ui);
+            detachRegistration.remove();
+        };
+    }
+
+    /**
+     * Registers every UI created by the given service from now on.
+     *
+     * @param service the Vaadin service of the application
+     * @return a {@link Registration} for no longer registering new UIs; UIs
+     *         registered so far stay registered
+     */
+    public Registration registerAll(VaadinService service) {
+        Objects.requireNonNull(service, "Service should not be null");
+        return service.addUIInitListener(event -> register(event.getUI()));
+    }
+
+    /**
+     * Gets the number of registered UIs.
+     *
+     * @return the number of UIs
+     */
+    public int getRegisteredUICount() {
+        return uis.size();
+    }
+
+    /**
+     * Shows a popup with the given HTML content in all registered UIs.
+     *
+     * @param html the HTML content, sanitized like
+     *             {@link Popup#setHtmlContent(String)}
+     * @return the broadcast, for following the delivery progress
+     */
+    public Broadcast broadcast(String html) {
+        return broadcast(null, locale -> html);
+    }
+
+    /**
+     * Shows a popup with the given header and localized HTML content in all
+     * registered UIs. The content is rendered once per locale.
+     *
+     * @param headerTitle the header title of the popup, or {@code null}
+     * @param renderer    renders the HTML content for a locale
+     * @return the broadcast, for following the delivery progress
+     */
+    public Broadcast broadcast(String headerTitle,
+            SerializableFunction<Locale, String> renderer) {
+        Objects.requireNonNull(renderer, "Renderer should not be null");
+        // unique across JVMs, a failed over popup must not pick up the content
+        // of another broadcast cached on the new node
+        String key = "popup-broadcast-" + UUID.randomUUID();
+        List<UI> targets = new ArrayList<>(uis);
+        Broadcast broadcast = new Broadcast(key, targets.size());
+
+        List<CompletableFuture<Void>> batches = new ArrayList<>();
+        for (int start = 0; start < targets.size(); start += batchSize) {
+            List<UI> batch = targets.subList(start,
+                    Math.min(start + batchSize, targets.size()));
+            batches.add(CompletableFuture.runAsync(() -> batch.forEach(
+                    ui -> deliver(ui, key, headerTitle, renderer, broadcast)),
+                    executor));
+        }
+        CompletableFuture.allOf(batches.toArray(new CompletableFuture<?>[0]))
+                .whenComplete((result, error) -> broadcast.completion
+                        .complete(broadcast));
+        return broadcast;
+    }
+
+    private void deliver(UI ui, String key, String headerTitle,
+            SerializableFunction<Locale, String> renderer,
+            Broadcast broadcast) {
+        if (ui.isClosing()) {
+            broadcast.skipped.incrementAndGet();
+            return;
+        }
+        try {
+            ui.access(() -> {
+                Popup popup = new Popup();
+                popup.setNavigationPolicy(PopupNavigationPolicy.RELEASE);
+                if (headerTitle != null) {
+                    popup.setHeaderTitle(headerTitle);
+                }
+                popup.setSharedContent(key, renderer);
+                popup.addPopupOpenChangedEventListener(event -> {
+                    if (!event.isOpened()) {
+                        popup.removeFromParent();
+                    }
+                });
+                ui.add(popup);
+                popup.show();
+                broadcast.delivered.incrementAndGet();
+            });
+            broadcast.queued.incrementAndGet();
+        } catch (UIDetachedException e) {
+            broadcast.skipped.incrementAndGet();
+        } catch (RuntimeException e) {
+            broadcast.failed.incrementAndGet();
+        }
+    }
+
+    /**
+     * Stops the delivery threads. Broadcasts in progress are not completed.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Unregisters a UI when it is detached. The listener is stored in the UI,
+     * so it has to be serializable without the broadcaster; after the session
+     * has been deserialized in another JVM, the UI is no longer registered
+     * and the listener does nothing.
+     */
+    private static class UnregisterOnDetach
+            implements ComponentEventListener<DetachEvent> {
+        private final transient Set<UI> uis;
+
+        private UnregisterOnDetach(Set<UI> uis) {
+            this.uis = uis;
+        }
+
+        @Override
+        public void onComponentEvent(DetachEvent event) {
+            if (uis != null) {
+                uis.remove(event.getUI());
+            }
+        }
+    }
+
+    /**
+     * The delivery progress of one broadcast.
+     */
+    public static class Broadcast {
+        private final String contentKey;
+        private final int total;
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicInteger delivered = new AtomicInteger();
+        private final AtomicInteger skipped = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final CompletableFuture<Broadcast> completion = new CompletableFuture<>();
+
+        private Broadcast(String contentKey, int total) {
+            this.contentKey = contentKey;
+            this.total = total;
+        }
+
+        /**
+         * Gets the number of UIs the broadcast is sent to.
+         *
+         * @return the number of UIs
+         */
+        public int getTotal() {
+            return total;
+        }
+
+        /**
+         * Gets the number of UIs the popup has been handed over to. The popup
+         * is added as soon as the session of the UI is not locked by another
+         * thread.
+         *
+         * @return the number of UIs
+         */
+        public int getQueued() {
+            return queued.get();
+        }
+
+        /**
+         * Gets the number of UIs the popup has been added to.
+         *
+         * @return the number of UIs
+         */
+        public int getDelivered() {
+            return delivered.get();
+        }
+
+        /**
+         * Gets the number of UIs which were skipped because they have been
+         * detached or closed.
+         *
+         * @return the number of UIs
+         */
+        public int getSkipped() {
+            return skipped.get();
+        }
+
+        /**
+         * Gets the number of UIs the delivery failed for.
+         *
+         * @return the number of UIs
+         */
+        public int getFailed() {
+            return failed.get();
+        }
+
+        /**
+         * Gets the share of UIs handled by the delivery threads so far.
+         *
+         * @return the progress between 0 and 1
+         */
+        public double getProgress() {
+            if (total == 0) {
+                return 1;
+            }
+            return Math.min(1, (double) (getQueued() + getSkipped()
+                    + getFailed()) / total);
+        }
+
+        /**
+         * Gets a future completed once the delivery threads have handled every
+         * UI. UIs which were locked when their batch ran get the popup when
+         * their pending access tasks are run, which can be after completion.
+         *
+         * @return the completion future
+         */
+        public CompletableFuture<Broadcast> getCompletion() {
+            return completion;
+        }
+
+        /**
+         * Removes the content of the broadcast from the shared content cache,
+         * once the popup is no longer needed. Popups already shown keep their
+         * rendered content.
+         */
+        public void releaseContent() {
+            PopupContentCache.getInstance().invalidate(contentKey);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2000-2023 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.componentfactory;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+import org.jsoup.Jsoup;
+import org.jsoup.safety.Safelist;
+
+import com.vaadin.flow.function.SerializableFunction;
+
+/**
+ * JVM wide cache of immutable popup content, shared by all sessions.
+ * <p>
+ * Content such as help texts or glossary entries is the same for every user
+ * of a locale. Instead of building a component tree in every session, the
+ * content is rendered once per key and locale into sanitized HTML, and popups
+ * using {@link Popup#setSharedContent(String, SerializableFunction)} only keep
+ * the key. The cache is bounded; the least recently used entries are evicted
+ * when the maximum size is exceeded and rendered again when needed.
+ *
+ * @author Vaadin Ltd
+ */
+public final class PopupContentCache {
+
+    /**
+     * The default maximum number of cached entries.
+     */
+    public static final int DEFAULT_MAXIMUM_SIZE = 1000;
+
+    private static final PopupContentCache INSTANCE = new PopupContentCache();
+
+    private final Map<CacheKey, String> entries = new LinkedHashMap<>(16,
+            0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<CacheKey, String> eldest) {
+            return size() > maximumSize;
+        }
+    };
+
+    private int maximumSize = DEFAULT_MAXIMUM_SIZE;
+
+    private PopupContentCache() {
+    }
+
+    /**
+     * Gets the cache instance shared by the whole JVM.
+     *
+     * @return the cache
+     */
+    public static PopupContentCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Gets the sanitized HTML for the given key and locale, rendering and
+     * caching it if it is not cached yet.
+     * <p>
+     * The renderer must return the same content for the same key and locale,
+     * regardless of the session it is called from.
+     *
+     * @param key      the content key, not {@code null}
+     * @param locale   the locale, not {@code null}
+     * @param renderer renders the HTML content for a locale
+     * @return the sanitized HTML content
+     */
+    public String get(String key, Locale locale,
+            SerializableFunction<Locale, String> renderer) {
+        Objects.requireNonNull(key, "Key should not be null");
+        Objects.requireNonNull(locale, "Locale should not be null");
+        Objects.requireNonNull(renderer, "Renderer should not be null");
+        CacheKey cacheKey = new CacheKey(key, locale);
+        synchronized (entries) {
+            String html = entries.get(cacheKey);
+            if (html != null) {
+                return html;
+            }
+        }
+        // Rendered outside the lock; concurrent misses for the same key just
+        // render the same content twice
+        String html = Jsoup.clean(
+                Objects.requireNonNull(renderer.apply(locale),
+                        "Rendered content should not be null"),
+                Safelist.relaxed());
+        synchronized (entries) {
+            String existing = entries.putIfAbsent(cacheKey, html);
+            return existing != null ? existing : html;
+        }
+    }
+
+    /**
+     * Removes the content of the given key for all locales. Popups render the
+     * new content the next time they are attached.
+     *
+     * @param key the content key
+     */
+    public void invalidate(String key) {
+        synchronized (entries) {
+            entries.keySet().removeIf(cacheKey -> cacheKey.key.equals(key));
+        }
+    }
+
+    /**
+     * Removes all cached content.
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * Gets the number of cached entries.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Sets the maximum number of cached entries. Defaults to
+     * {@value #DEFAULT_MAXIMUM_SIZE}.
+     *
+     * @param maximumSize the maximum number of entries, at least 1
+     */
+    public void setMaximumSize(int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException(
+                    "The maximum size should be at least 1");
+        }
+        synchronized (entries) {
+            this.maximumSize = maximumSize;
+            while (entries.size() > maximumSize) {
+                entries.remove(entries.keySet().iterator().next());
+            }
+        }
+    }
+
+    public int getMaximumSize() {
+        synchronized (entries) {
+            return maximumSize;
+        }
+    }
+
+    private static final class CacheKey {
+        private final String key;
+        private final Locale locale;
+
+        private CacheKey(String key, Locale locale) {
+            this.key = key;
+            this.locale = locale;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof CacheKey)) {
+                return false;
+            }
+            CacheKey other = (CacheKey) obj;
+            return key.equals(other.key) && locale.equals(other.locale);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(key, locale);
+        }
+    }
+}
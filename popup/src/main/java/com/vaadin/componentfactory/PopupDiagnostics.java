@@ -0,0 +1,358 @@
+/*
+ * Copyright 2000-2023 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.componentfactory;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import com.vaadin.flow.component.ComponentUtil;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.dom.Element;
+
+import elemental.json.Json;
+import elemental.json.JsonArray;
+import elemental.json.JsonObject;
+
+/**
+ * Reports the popups attached to a UI, to help finding popups which are kept
+ * around longer than intended. Popups are tracked from attach to detach, so
+ * every reported popup is attached.
+ * <p>
+ * A popup is reported as a suspected leak when it has been shown at least
+ * once, is closed, and has stayed attached for longer than the given threshold
+ * since it was closed. This is the typical symptom of a generated popup whose
+ * close event never reached the server. Popups which are meant to be reused,
+ * like popups bound to a target with {@link Popup#setFor(String)}, can show up
+ * as well; the threshold should be chosen accordingly.
+ * <p>
+ * Popups only track when they are opened and closed once the first snapshot of
+ * their UI has been taken, so the popups don't pay for it otherwise. Until
+ * then, only popups opened from the server, or open at the time of the
+ * snapshot, count as shown, and the time since closing is measured from
+ * their attach.
+ * <p>
+ * The snapshot must be taken with the UI locked, for example inside
+ * {@link UI#access(com.vaadin.flow.server.Command)}. The returned snapshot is
+ * immutable and can be used from any thread.
+ *
+ * @author Vaadin Ltd
+ */
+public final class PopupDiagnostics {
+
+    /**
+     * A rough, fixed estimate of the heap retained by one state node (element)
+     * of the popup, including its component. Used to compare popups with each
+     * other, not a measurement; take a heap dump for actual sizes.
+     */
+    public static final long ESTIMATED_BYTES_PER_STATE_NODE = 512;
+
+    private PopupDiagnostics() {
+    }
+
+    /**
+     * Takes a snapshot of the popups attached to the given UI.
+     *
+     * @param ui              the UI, must be locked by the current thread
+     * @param closedThreshold how long a shown popup may stay attached after it
+     *                        has been closed before it is reported as a
+     *                        suspected leak
+     * @return the snapshot
+     */
+    public static Snapshot snapshot(UI ui, Duration closedThreshold) {
+        Objects.requireNonNull(ui, "UI should not be null");
+        Objects.requireNonNull(closedThreshold, "Threshold should not be null");
+
+        Popup.trackOpenState(ui);
+        long now = System.currentTimeMillis();
+        List<PopupInfo> popups = new ArrayList<>();
+        for (Popup popup : Popup.getAttachedPopups(ui)) {
+            popups.add(new PopupInfo(popup, now, closedThreshold.toMillis()));
+        }
+        return new Snapshot(ui.getUIId(), now, popups);
+    }
+
+    /**
+     * The popups of one UI at a point of time.
+     */
+    public static class Snapshot implements Serializable {
+        private final int uiId;
+        private final long timestamp;
+        private final List<PopupInfo> popups;
+
+        private Snapshot(int uiId, long timestamp, List<PopupInfo> popups) {
+            this.uiId = uiId;
+            this.timestamp = timestamp;
+            this.popups = Collections.unmodifiableList(popups);
+        }
+
+        public int getUIId() {
+            return uiId;
+        }
+
+        /**
+         * Gets the time when the snapshot was taken.
+         *
+         * @return the time in milliseconds since the epoch
+         */
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public List<PopupInfo> getPopups() {
+            return popups;
+        }
+
+        /**
+         * Gets the popups reported as suspected leaks.
+         *
+         * @return the suspected leaks
+         */
+        public List<PopupInfo> getSuspectedLeaks() {
+            return popups.stream().filter(PopupInfo::isSuspectedLeak)
+                    .collect(Collectors.toList());
+        }
+
+        /**
+         * Gets a rough estimate of the heap retained by all popups of the UI.
+         *
+         * @return the estimated size in bytes
+         */
+        public long getEstimatedRetainedBytes() {
+            return popups.stream()
+                    .mapToLong(PopupInfo::getEstimatedRetainedBytes).sum();
+        }
+
+        /**
+         * Converts the snapshot to JSON, e.g. to be exposed on an admin
+         * endpoint.
+         *
+         * @return the snapshot as JSON
+         */
+        public JsonObject toJson() {
+            JsonObject json = Json.createObject();
+            json.put("uiId", uiId);
+            json.put("timestamp", timestamp);
+            json.put("roughEstimatedRetainedBytes",
+                    getEstimatedRetainedBytes());
+            json.put("bytesPerStateNodeEstimate",
+                    ESTIMATED_BYTES_PER_STATE_NODE);
+            json.put("suspectedLeaks", getSuspectedLeaks().size());
+            JsonArray array = Json.createArray();
+            for (int i = 0; i < popups.size(); i++) {
+                array.set(i, popups.get(i).toJson());
+            }
+            json.put("popups", array);
+            return json;
+        }
+    }
+
+    /**
+     * The state of one popup.
+     */
+    public static class PopupInfo implements Serializable {
+        private final String id;
+        private final String type;
+        private final boolean opened;
+        private final int contentChildCount;
+        private final int headerChildCount;
+        private final int footerChildCount;
+        private final boolean headerCreated;
+        private final boolean footerCreated;
+        private final int openChangedListenerCount;
+        private final int templateActionListenerCount;
+        private final int stateNodeCount;
+        private final long closedForMillis;
+        private final boolean suspectedLeak;
+
+        private PopupInfo(Popup popup, long now, long closedThreshold) {
+            id = popup.getId().orElse(null);
+            type = popup.getClass().getName();
+            opened = popup.isOpened();
+            Element container = popup.getContainer();
+            contentChildCount = container == null ? 0
+                    : container.getChildCount();
+            headerChildCount = popup.getHeaderIfCreated() == null ? 0
+                    : popup.getHeaderIfCreated().getElement().getChildCount();
+            footerChildCount = popup.getFooterIfCreated() == null ? 0
+                    : popup.getFooterIfCreated().getElement().getChildCount();
+            headerCreated = popup.getHeaderIfCreated() != null;
+            footerCreated = popup.getFooterIfCreated() != null;
+            openChangedListenerCount = ComponentUtil
+                    .getListeners(popup, Popup.PopupOpenChangedEvent.class)
+                    .size();
+            templateActionListenerCount = ComponentUtil
+                    .getListeners(popup, Popup.PopupTemplateActionEvent.class)
+                    .size();
+
+            int nodes = 1;
+            if (container != null) {
+                nodes += countNodes(container);
+            }
+            if (popup.getHeaderIfCreated() != null) {
+                nodes += countNodes(popup.getHeaderIfCreated().getElement());
+            }
+            if (popup.getFooterIfCreated() != null) {
+                nodes += countNodes(popup.getFooterIfCreated().getElement());
+            }
+            stateNodeCount = nodes;
+
+            closedForMillis = opened ? 0 : now - popup.getClosedSince();
+            suspectedLeak = popup.isShown() && !opened
+                    && closedForMillis > closedThreshold;
+        }
+
+        private static int countNodes(Element element) {
+            int count = 1;
+            for (int i = 0; i < element.getChildCount(); i++) {
+                count += countNodes(element.getChild(i));
+            }
+            return count;
+        }
+
+        /**
+         * Gets the id of the popup component.
+         *
+         * @return the id, or {@code null} if not set
+         */
+        public String getId() {
+            return id;
+        }
+
+        /**
+         * Gets the class name of the popup.
+         *
+         * @return the class name
+         */
+        public String getType() {
+            return type;
+        }
+
+        public boolean isOpened() {
+            return opened;
+        }
+
+        public int getContentChildCount() {
+            return contentChildCount;
+        }
+
+        public int getHeaderChildCount() {
+            return headerChildCount;
+        }
+
+        public int getFooterChildCount() {
+            return footerChildCount;
+        }
+
+        /**
+         * Gets whether the header of the popup has been created. It is only
+         * created when used.
+         *
+         * @return true if the header has been created
+         */
+        public boolean isHeaderCreated() {
+            return headerCreated;
+        }
+
+        /**
+         * Gets whether the footer of the popup has been created. It is only
+         * created when used.
+         *
+         * @return true if the footer has been created
+         */
+        public boolean isFooterCreated() {
+            return footerCreated;
+        }
+
+        /**
+         * Gets the number of open changed listeners, including the one the
+         * popup registers for itself.
+         *
+         * @return the number of listeners
+         */
+        public int getOpenChangedListenerCount() {
+            return openChangedListenerCount;
+        }
+
+        public int getTemplateActionListenerCount() {
+            return templateActionListenerCount;
+        }
+
+        /**
+         * Gets the number of state nodes of the popup, its content, header and
+         * footer.
+         *
+         * @return the number of state nodes
+         */
+        public int getStateNodeCount() {
+            return stateNodeCount;
+        }
+
+        /**
+         * Gets a rough estimate of the heap retained by the popup, based on
+         * {@link PopupDiagnostics#ESTIMATED_BYTES_PER_STATE_NODE}.
+         *
+         * @return the estimated size in bytes
+         */
+        public long getEstimatedRetainedBytes() {
+            return stateNodeCount * ESTIMATED_BYTES_PER_STATE_NODE;
+        }
+
+        /**
+         * Gets for how long the popup has been closed, or for how long it has
+         * been attached if it has never been opened.
+         *
+         * @return the time in milliseconds, 0 if the popup is open
+         */
+        public long getClosedForMillis() {
+            return closedForMillis;
+        }
+
+        public boolean isSuspectedLeak() {
+            return suspectedLeak;
+        }
+
+        /**
+         * Converts the popup state to JSON.
+         *
+         * @return the popup state as JSON
+         */
+        public JsonObject toJson() {
+            JsonObject json = Json.createObject();
+            if (id != null) {
+                json.put("id", id);
+            }
+            json.put("type", type);
+            json.put("opened", opened);
+            json.put("contentChildCount", contentChildCount);
+            json.put("headerChildCount", headerChildCount);
+            json.put("footerChildCount", footerChildCount);
+            json.put("openChangedListenerCount", openChangedListenerCount);
+            json.put("templateActionListenerCount",
+                    templateActionListenerCount);
+            json.put("stateNodeCount", stateNodeCount);
+            json.put("roughEstimatedRetainedBytes",
+                    getEstimatedRetainedBytes());
+            json.put("closedForMillis", closedForMillis);
+            json.put("suspectedLeak", suspectedLeak);
+            return json;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2000-2023 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.componentfactory;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * A group of popups of which only one can be open at a time, for example the
+ * popups of a toolbar.
+ * <p>
+ * Exclusivity is enforced in the browser: when a popup of the group opens,
+ * the other popups of the group are closed right away, without a round-trip
+ * to the server. The server is notified of the final open state of all
+ * popups through their open changed events.
+ *
+ * @author Vaadin Ltd
+ */
+public class PopupGroup implements Serializable {
+
+    // unique across JVMs, so groups restored after failover don't collide
+    private final String id = "popup-group-" + UUID.randomUUID();
+
+    private final Set<Popup> popups = new LinkedHashSet<>();
+
+    /**
+     * Adds popups to the group. A popup can only belong to one group; it is
+     * removed from its previous group.
+     *
+     * @param popups the popups to add
+     */
+    public void add(Popup... popups) {
+        Objects.requireNonNull(popups, "Popups should not be null");
+        for (Popup popup : popups) {
+            PopupGroup previous = popup.getGroup();
+            if (previous != null && previous != this) {
+                previous.remove(popup);
+            }
+            this.popups.add(popup);
+            popup.setGroup(this);
+        }
+    }
+
+    /**
+     * Removes a popup from the group.
+     *
+     * @param popup the popup to remove
+     */
+    public void remove(Popup popup) {
+        if (popups.remove(popup)) {
+            popup.setGroup(null);
+        }
+    }
+
+    /**
+     * Gets the popups of the group.
+     *
+     * @return an unmodifiable set of the popups
+     */
+    public Set<Popup> getPopups() {
+        return Collections.unmodifiableSet(popups);
+    }
+
+    /**
+     * Gets the id identifying the group in the browser.
+     *
+     * @return the group id
+     */
+    public String getId() {
+        return id;
+    }
+}
@@ -0,0 +1,27 @@
+package com.vaadin.componentfactory;
+
+/**
+ * What a {@link Popup} does when the user navigates away from the current view
+ * or when the popup is detached. See
+ * {@link Popup#setNavigationPolicy(PopupNavigationPolicy)}.
+ */
+public enum PopupNavigationPolicy {
+
+    /**
+     * The popup is left as it is. This is the default.
+     */
+    KEEP,
+
+    /**
+     * The popup is closed once the user has navigated away.
+     */
+    HIDE,
+
+    /**
+     * The popup is closed and removed from its parent once the user has
+     * navigated away.
+     * When detached, its content, header and footer components are removed,
+     * so neither the popup nor its content keeps references to the old view.
+     */
+    RELEASE
+}
@@ -0,0 +1,22 @@
+package com.vaadin.componentfactory;
+
+/**
+ * How an open {@link Popup} follows its target when the page is scrolled or
+ * resized. See {@link Popup#setRepositionMode(PopupRepositionMode)}.
+ */
+public enum PopupRepositionMode {
+
+    /**
+     * The popup is repositioned on every scroll and resize event. This is the
+     * default.
+     */
+    IMMEDIATE,
+
+    /**
+     * The popup is repositioned at most once per animation frame, and only
+     * when its target moves, changes its size or the viewport changes. The
+     * popup is not repositioned while its target is outside of the viewport.
+     * Recommended for pages with several open modeless popups.
+     */
+    FRAME
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2000-2023 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.componentfactory;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+import com.vaadin.flow.component.ComponentUtil;
+import com.vaadin.flow.component.UI;
+
+/**
+ * The open popups of a UI, in the order they were opened.
+ * <p>
+ * The stack is kept up to date from the open changed events of the popups, so
+ * reading it doesn't query the popups. Popups only listen to these events once
+ * the stack of their UI has been used; popups open at that time are stacked in
+ * the order they were attached. The browser keeps the same stack: a
+ * popup is raised above the popups opened before it when it opens, and
+ * {@link #closeTopmost()} and {@link #closeAll()} are executed there as a
+ * single operation, without a round-trip per popup, on the popups within the
+ * root element of the UI only, so UIs embedded in the same page don't close
+ * each other's popups. The server is notified of the closed popups through
+ * their open changed events.
+ *
+ * @author Vaadin Ltd
+ */
+public class PopupStack implements Serializable {
+
+    private final UI ui;
+
+    private final Set<Popup> openPopups = new LinkedHashSet<>();
+
+    private PopupStack(UI ui) {
+        this.ui = ui;
+        // popups opened before the stack was used, in attach order
+        Popup.getAttachedPopups(ui).stream().filter(Popup::isOpened)
+                .forEach(openPopups::add);
+    }
+
+    /**
+     * Gets the popup stack of the given UI.
+     *
+     * @param ui the UI, not {@code null}
+     * @return the popup stack of the UI
+     */
+    public static PopupStack get(UI ui) {
+        Objects.requireNonNull(ui, "UI should not be null");
+        PopupStack stack = ComponentUtil.getData(ui, PopupStack.class);
+        if (stack == null) {
+            stack = new PopupStack(ui);
+            ComponentUtil.setData(ui, PopupStack.class, stack);
+            Popup.trackOpenState(ui);
+        }
+        return stack;
+    }
+
+    /**
+     * Gets the open popups, the one opened first first and the topmost last.
+     *
+     * @return an unmodifiable snapshot of the open popups
+     */
+    public List<Popup> getOpenPopups() {
+        return Collections.unmodifiableList(new ArrayList<>(openPopups));
+    }
+
+    /**
+     * Gets the popup opened last.
+     *
+     * @return the topmost popup, or an empty optional if no popup is open
+     */
+    public Optional<Popup> getTopmost() {
+        Popup topmost = null;
+        for (Popup popup : openPopups) {
+            topmost = popup;
+        }
+        return Optional.ofNullable(topmost);
+    }
+
+    /**
+     * Gets the number of open popups.
+     *
+     * @return the number of open popups
+     */
+    public int size() {
+        return openPopups.size();
+    }
+
+    /**
+     * Closes the popup opened last.
+     */
+    public void closeTopmost() {
+        ui.getElement().executeJs(
+                "window.Vaadin.Flow.popupConnector && window.Vaadin.Flow.popupConnector.closeTopmost(this)");
+    }
+
+    /**
+     * Closes all open popups, the topmost first.
+     */
+    public void closeAll() {
+        ui.getElement().executeJs(
+                "window.Vaadin.Flow.popupConnector && window.Vaadin.Flow.popupConnector.closeAll(this)");
+    }
+
+    /**
+     * Updates the stack of the given UI, if it is used.
+     */
+    static void update(UI ui, Popup popup, boolean opened) {
+        PopupStack stack = ComponentUtil.getData(ui, PopupStack.class);
+        if (stack != null) {
+            // re-insert to move a reopened popup to the top
+            stack.openPopups.remove(popup);
+            if (opened) {
+                stack.openPopups.add(popup);
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2000-2023 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.componentfactory;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.Set;
+
+import org.jsoup.Jsoup;
+import org.jsoup.safety.Safelist;
+
+import com.vaadin.flow.component.ComponentUtil;
+import com.vaadin.flow.component.UI;
+
+/**
+ * A popup layout defined once as HTML and filled with item values on the
+ * client.
+ * <p>
+ * The markup is sent to each UI only once, the first time a popup using the
+ * template is rendered there. After that, opening a popup only transfers the
+ * values given to {@link Popup#setTemplateContent(PopupTemplate, elemental.json.JsonObject)}.
+ * Elements with a {@code data-bind="key"} attribute show the text of the value
+ * with the same key; clicking an element with a {@code data-action="key"}
+ * attribute fires a {@link Popup.PopupTemplateActionEvent} with that key.
+ * <pre>
+ * PopupTemplate template = new PopupTemplate(
+ *         "&lt;h4 data-bind=\"name\"&gt;&lt;/h4&gt;&lt;button data-action=\"edit\"&gt;Edit&lt;/button&gt;");
+ * </pre>
+ * A template is immutable and can be shared by all UIs, typically as a
+ * constant.
+ *
+ * @author Vaadin Ltd
+ */
+public class PopupTemplate implements Serializable {
+
+    private final String id;
+    private final String html;
+
+    /**
+     * Creates a new template. The markup is sanitized with the
+     * {@link Safelist#relaxed() relaxed} safelist of jsoup; besides its
+     * formatting elements, {@code button} elements and the {@code class},
+     * {@code data-bind} and {@code data-action} attributes are kept.
+     * {@code style} attributes are removed, so style the template through its
+     * class names in a stylesheet instead.
+     *
+     * @param html the template markup, not {@code null}
+     */
+    public PopupTemplate(String html) {
+        Objects.requireNonNull(html, "Template HTML should not be null");
+        this.html = Jsoup.clean(html, Safelist.relaxed().addTags("button")
+                .addAttributes(":all", "class", "data-bind", "data-action"));
+        this.id = createId(this.html);
+    }
+
+    // Derived from the markup, so the same template has the same id in every
+    // JVM of a cluster and a registration survives a session failover.
+    private static String createId(String html) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(html.getBytes(StandardCharsets.UTF_8));
+            return "popup-template-"
+                    + HexFormat.of().formatHex(digest, 0, 12);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Gets the identifier of this template on the client.
+     *
+     * @return the template id
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Gets the sanitized markup of this template.
+     *
+     * @return the template markup
+     */
+    public String getHtml() {
+        return html;
+    }
+
+    /**
+     * Sends the markup to the client of the given UI, unless it was already
+     * sent there. Components preserved on refresh are moved to a new UI, so
+     * the markup is sent again to the reloaded page.
+     *
+     * @param ui the UI to register the template in
+     */
+    void register(UI ui) {
+        @SuppressWarnings("unchecked")
+        Set<String> registered = (Set<String>) ComponentUtil.getData(ui,
+                PopupTemplate.class.getName());
+        if (registered == null) {
+            registered = new HashSet<>();
+            ComponentUtil.setData(ui, PopupTemplate.class.getName(),
+                    registered);
+        }
+        if (registered.add(id)) {
+            ui.getPage().executeJs(
+                    "window.Vaadin.Flow.popupConnector.registerTemplate($0, $1)",
+                    id, html);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2000-2023 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.componentfactory;
+
+import java.io.Serializable;
+
+/**
+ * Receives the popup timings measured in the browsers of the users. See
+ * {@link Popup#addTimingListener(com.vaadin.flow.component.UI, PopupTimingListener)}.
+ *
+ * @author Vaadin Ltd
+ */
+@FunctionalInterface
+public interface PopupTimingListener extends Serializable {
+
+    /**
+     * Called with a batch of timings measured in one UI. Called with the
+     * session of the UI locked, so the implementation should only hand the
+     * timings over, e.g. to a metrics registry.
+     *
+     * @param timings the timings
+     */
+    void onTimings(PopupTimings timings);
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2000-2023 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.componentfactory;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.vaadin.flow.component.UI;
+
+import elemental.json.JsonArray;
+import elemental.json.JsonObject;
+
+/**
+ * A batch of popup timings measured in the browser of one UI.
+ * <p>
+ * The batch contains the samples of all popups of the UI since the previous
+ * batch, up to a limited number of samples per kind.
+ *
+ * @author Vaadin Ltd
+ */
+public class PopupTimings implements Serializable {
+
+    private final UI ui;
+    private final Timing open;
+    private final Timing render;
+
+    PopupTimings(UI ui, JsonObject detail) {
+        this.ui = ui;
+        this.open = new Timing(detail.getObject("open"));
+        this.render = new Timing(detail.getObject("render"));
+    }
+
+    /**
+     * Gets the UI the timings were measured in.
+     *
+     * @return the UI
+     */
+    public UI getUI() {
+        return ui;
+    }
+
+    /**
+     * Gets the time from the user interaction which opened a popup until the
+     * popup was painted.
+     *
+     * @return the open timing
+     */
+    public Timing getOpen() {
+        return open;
+    }
+
+    /**
+     * Gets the time spent rendering the content of open popups.
+     *
+     * @return the render timing
+     */
+    public Timing getRender() {
+        return render;
+    }
+
+    /**
+     * Aggregated samples of one kind of timing.
+     */
+    public static class Timing implements Serializable {
+        private final int count;
+        private final double totalMillis;
+        private final double maxMillis;
+        private final List<Double> samples;
+
+        private Timing(JsonObject json) {
+            count = (int) json.getNumber("count");
+            totalMillis = json.getNumber("total");
+            maxMillis = json.getNumber("max");
+            JsonArray array = json.getArray("samples");
+            List<Double> values = new ArrayList<>(array.length());
+            for (int i = 0; i < array.length(); i++) {
+                values.add(array.getNumber(i));
+            }
+            samples = Collections.unmodifiableList(values);
+        }
+
+        /**
+         * Gets the number of samples.
+         *
+         * @return the number of samples
+         */
+        public int getCount() {
+            return count;
+        }
+
+        /**
+         * Gets the mean of the samples.
+         *
+         * @return the mean in milliseconds, 0 if there are no samples
+         */
+        public double getMeanMillis() {
+            return count == 0 ? 0 : totalMillis / count;
+        }
+
+        public double getMaxMillis() {
+            return maxMillis;
+        }
+
+        /**
+         * Gets the individual samples, e.g. to feed a histogram.
+         *
+         * @return the samples in milliseconds
+         */
+        public List<Double> getSamples() {
+            return samples;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.vaadin.componentfactory.onboarding;
 
 import com.vaadin.componentfactory.Popup;
+import com.vaadin.componentfactory.PopupNavigationPolicy;
 import com.vaadin.componentfactory.PopupVariant;
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.button.Button;
@@ -111,6 +112,7 @@ public class Onboarding implements Serializable {
         popup.setPosition(onboardingStep.getPosition());
         popup.setAlignment(onboardingStep.getAlignment());
         popup.setIgnoreTargetClick(true);
+        popup.setNavigationPolicy(PopupNavigationPolicy.RELEASE);
         if (onboardingStep.getTargetElement() != null) {
             popup.setTarget(onboardingStep.getTargetElement().getElement());
         }
@@ -0,0 +1,552 @@
+/*
+ * Copyright 2000-2023 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+// Client side counterpart of the server side Popup component.
+
+const templates = {};
+
+let popupLoaded;
+
+// The web component is loaded on first use, so it is bundled as a separate
+// chunk instead of being part of the initial bundle of every route.
+function loadPopup() {
+  if (!popupLoaded) {
+    popupLoaded = import('@vaadin-component-factory/vcf-popup/src/vcf-popup.js');
+  }
+  return popupLoaded;
+}
+
+// Overlays waiting for a repositioning in the next animation frame
+const pendingOverlays = new Set();
+let frameRequested = false;
+
+function requestPositionUpdate(overlay) {
+  pendingOverlays.add(overlay);
+  if (!frameRequested) {
+    frameRequested = true;
+    requestAnimationFrame(flushPositionUpdates);
+  }
+}
+
+function getPositionKey(overlay) {
+  const rect = overlay.positionTarget.getBoundingClientRect();
+  return [rect.top, rect.left, rect.width, rect.height, window.innerWidth, window.innerHeight,
+    overlay.$.overlay.offsetWidth, overlay.$.overlay.offsetHeight].join();
+}
+
+// Reads the layout of all pending overlays first, then repositions those
+// whose target, viewport or size changed, so overlays don't force a layout
+// on each other.
+function flushPositionUpdates() {
+  frameRequested = false;
+  const changed = [];
+  pendingOverlays.forEach((overlay) => {
+    const state = overlay.__popupPositioning;
+    if (!overlay.opened || !overlay.positionTarget || state.targetHidden) {
+      return;
+    }
+    const key = getPositionKey(overlay);
+    if (key !== state.key) {
+      state.key = key;
+      changed.push(overlay);
+    }
+  });
+  pendingOverlays.clear();
+  changed.forEach((overlay) => overlay.__popupPositioning.updatePosition());
+}
+
+function observeTarget(popup, overlay) {
+  const state = overlay.__popupPositioning;
+  const target = overlay.positionTarget;
+  if (!target || state.observedTarget === target) {
+    return;
+  }
+  unobserveTarget(overlay);
+  state.observedTarget = target;
+  state.resizeObserver = new ResizeObserver(() => requestPositionUpdate(overlay));
+  state.resizeObserver.observe(target);
+  state.intersectionObserver = new IntersectionObserver((entries) => {
+    const hidden = !entries[entries.length - 1].isIntersecting;
+    state.targetHidden = hidden;
+    if (hidden && popup.closeOnTargetHidden) {
+      popup.opened = false;
+    } else if (!hidden) {
+      requestPositionUpdate(overlay);
+    }
+  });
+  state.intersectionObserver.observe(target);
+}
+
+function unobserveTarget(overlay) {
+  const state = overlay.__popupPositioning;
+  if (state.observedTarget) {
+    state.resizeObserver.disconnect();
+    state.intersectionObserver.disconnect();
+    state.observedTarget = null;
+    state.targetHidden = false;
+  }
+}
+
+// Popups which belong to a PopupGroup
+const groupedPopups = new Set();
+
+// Real user timings, sent to the server in batches
+const TIMING_FLUSH_INTERVAL = 10000;
+const TIMING_MAX_SAMPLES = 100;
+const timingSamples = { open: [], render: [] };
+let lastTimingFlush = performance.now();
+let lastInteraction = -Infinity;
+
+['pointerdown', 'keydown'].forEach((type) =>
+  document.addEventListener(type, (event) => {
+    lastInteraction = event.timeStamp;
+  }, { capture: true, passive: true })
+);
+
+function recordTiming(kind, duration) {
+  const samples = timingSamples[kind];
+  if (samples.length < TIMING_MAX_SAMPLES) {
+    samples.push(Math.round(duration * 10) / 10);
+  }
+}
+
+function summarize(samples) {
+  const total = samples.reduce((a, b) => a + b, 0);
+  return { count: samples.length, total, max: samples.length ? Math.max(...samples) : 0, samples };
+}
+
+// Called while the popup is about to send its open changed event, so the
+// batch goes to the server in the same request.
+function flushTimings(popup) {
+  const count = timingSamples.open.length + timingSamples.render.length;
+  const now = performance.now();
+  if (count === 0 || (now - lastTimingFlush < TIMING_FLUSH_INTERVAL && count < TIMING_MAX_SAMPLES)) {
+    return;
+  }
+  const detail = { open: summarize(timingSamples.open), render: summarize(timingSamples.render) };
+  timingSamples.open = [];
+  timingSamples.render = [];
+  lastTimingFlush = now;
+  popup.dispatchEvent(new CustomEvent('popup-timing', { detail }));
+}
+
+// Popups generated by ComponentWithPopupRenderer, by their overlay. A key
+// pressed in their overlay can close the popup and move the focus back to the
+// grid cell before the key is released; the container of the popup then
+// ignores the click the cell gets for the released key, so the popup is not
+// opened again right away. The overlay only knows its popup when the popup
+// has a header or footer, so the mapping is kept here. Popups with the
+// `preventReopenOnKey` property are added when they open.
+const reopenGuardedPopups = new WeakMap();
+
+function getReopenGuardedContainer(event) {
+  const overlay = event.composedPath().find((node) => reopenGuardedPopups.has(node));
+  const popup = overlay && reopenGuardedPopups.get(overlay);
+  return popup && popup.preventReopenOnKey ? popup.parentElement : null;
+}
+
+document.addEventListener('keydown', (event) => {
+  const container = getReopenGuardedContainer(event);
+  if (container) {
+    container.preventPopupOpening = true;
+  }
+}, { capture: true, passive: true });
+
+document.addEventListener('keyup', (event) => {
+  const container = getReopenGuardedContainer(event);
+  if (container) {
+    container.preventPopupOpening = false;
+  }
+}, { capture: true, passive: true });
+
+const TABBABLE_SELECTOR = 'a[href], area[href], button, input, select, textarea, iframe, [tabindex], [contenteditable]';
+
+function isTabbable(element) {
+  return element.tabIndex >= 0 && !element.disabled && !element.hasAttribute('disabled')
+    && !element.closest('[inert]') && element.getClientRects().length > 0
+    && !(element.localName === 'input' && element.type === 'hidden');
+}
+
+// Tabbable elements of the light DOM of the overlay, in tab order
+function findTabbables(overlay) {
+  const tabbables = Array.from(overlay.querySelectorAll(TABBABLE_SELECTOR)).filter(isTabbable);
+  const ordered = tabbables.filter((element) => element.tabIndex > 0).sort((a, b) => a.tabIndex - b.tabIndex);
+  return ordered.concat(tabbables.filter((element) => element.tabIndex === 0));
+}
+
+function getDeepActiveElement() {
+  let active = document.activeElement;
+  while (active && active.shadowRoot && active.shadowRoot.activeElement) {
+    active = active.shadowRoot.activeElement;
+  }
+  return active;
+}
+
+// Open popups of the page, in the order they were opened. PopupStack is per
+// UI, so reads are scoped to the root element of a UI.
+const openStack = [];
+// The highest z-index given to a popup of the stack
+let topZIndex = 0;
+
+function removeFromStack(popup) {
+  const index = openStack.indexOf(popup);
+  if (index >= 0) {
+    openStack.splice(index, 1);
+  }
+  if (openStack.length === 0) {
+    topZIndex = 0;
+  }
+}
+
+function isInRoot(root, node) {
+  for (let current = node; current; current = current.parentNode || current.host) {
+    if (current === root) {
+      return true;
+    }
+  }
+  return false;
+}
+
+// The open popups of a UI, bottom first. Popups detached while open are
+// dropped, their open changed event doesn't reach the document.
+function getStack(root) {
+  openStack.filter((popup) => !popup.isConnected).forEach(removeFromStack);
+  return openStack.filter((popup) => isInRoot(root, popup));
+}
+
+// The event doesn't bubble, but the capture phase reaches the document
+document.addEventListener('popup-open-changed', (event) => {
+  const popup = event.target;
+  removeFromStack(popup);
+  if (!popup.opened) {
+    return;
+  }
+  const overlay = popup.$.popupOverlay;
+  if (popup.preventReopenOnKey) {
+    reopenGuardedPopups.set(overlay, popup);
+  }
+  if (!overlay.__popupStack) {
+    overlay.__popupStack = true;
+    // also reached when the popup is closed while detached
+    overlay.addEventListener('opened-changed', () => {
+      if (!overlay.opened) {
+        removeFromStack(popup);
+      }
+    });
+  }
+  // keep the popup above the popups opened before it
+  const zIndex = parseInt(getComputedStyle(overlay).zIndex, 10) || 0;
+  if (openStack.length > 0 && zIndex <= topZIndex) {
+    topZIndex += 1;
+    overlay.style.zIndex = topZIndex;
+  } else {
+    topZIndex = Math.max(topZIndex, zIndex);
+  }
+  openStack.push(popup);
+}, true);
+
+window.Vaadin = window.Vaadin || {};
+window.Vaadin.Flow = window.Vaadin.Flow || {};
+
+window.Vaadin.Flow.popupConnector = {
+  /**
+   * Runs the callback once the vcf-popup web component is defined, loading
+   * it on first use. Runs synchronously when it is already defined.
+   */
+  run(callback) {
+    if (customElements.get('vcf-popup')) {
+      callback();
+    } else {
+      loadPopup().then(callback);
+    }
+  },
+
+  /**
+   * Installs the positioning layer on a popup. While the `repositionMode`
+   * property of the popup is `frame`, an open popup is positioned right away
+   * and then repositioned at most once per animation frame, only when its
+   * target moves, changes its size or the viewport changes. The target is
+   * watched with a `ResizeObserver` and an `IntersectionObserver`; the popup is
+   * not repositioned while its target is out of the viewport, and is closed if
+   * its `closeOnTargetHidden` property is set.
+   */
+  initPositioning(popup) {
+    const overlay = popup.$.popupOverlay;
+    if (overlay.__popupPositioning) {
+      return;
+    }
+    const updatePosition = overlay._updatePosition;
+    const state = { updatePosition, key: null, positioned: false };
+    overlay.__popupPositioning = state;
+
+    overlay._updatePosition = () => {
+      if (popup.repositionMode !== 'frame') {
+        updatePosition();
+      } else if (!state.positioned) {
+        // position synchronously when opened, so the popup doesn't flicker
+        updatePosition();
+        state.positioned = true;
+        state.key = overlay.positionTarget ? getPositionKey(overlay) : null;
+        observeTarget(popup, overlay);
+      } else {
+        requestPositionUpdate(overlay);
+      }
+    };
+    overlay.addEventListener('opened-changed', () => {
+      if (!overlay.opened) {
+        state.positioned = false;
+        state.key = null;
+        unobserveTarget(overlay);
+      }
+    });
+    if (overlay.opened) {
+      // the resize listener was added with the original function
+      window.removeEventListener('resize', updatePosition);
+      window.addEventListener('resize', overlay._updatePosition, { passive: true });
+    }
+  },
+
+  /**
+   * Makes the popup exclusive within its group: when it opens, the other
+   * open popups with the same `group` property are closed right away, so only
+   * the final state is sent to the server, in the same round-trip.
+   */
+  initGroup(popup) {
+    groupedPopups.add(popup);
+    if (popup.__popupGroupListener) {
+      return;
+    }
+    popup.__popupGroupListener = () => {
+      if (!popup.opened || !popup.group) {
+        return;
+      }
+      groupedPopups.forEach((other) => {
+        if (!other.isConnected) {
+          groupedPopups.delete(other);
+        } else if (other !== popup && other.group === popup.group && other.opened) {
+          other.hide();
+        }
+      });
+    };
+    popup.addEventListener('popup-open-changed', popup.__popupGroupListener);
+  },
+
+  /**
+   * Opens the popup anchored to a rectangle given in viewport coordinates,
+   * instead of a target element. An invisible, fixed positioned anchor
+   * element is used as the target, so the usual position and alignment rules
+   * apply. When the popup is closed, the anchor is removed and the previous
+   * target of the popup is restored.
+   */
+  showAt(popup, x, y, width, height) {
+    let anchor = popup.__popupAnchor;
+    if (!anchor) {
+      anchor = document.createElement('div');
+      anchor.style.position = 'fixed';
+      anchor.style.pointerEvents = 'none';
+      anchor.style.visibility = 'hidden';
+      popup.__popupAnchor = anchor;
+      popup.addEventListener('popup-open-changed', () => {
+        if (!popup.opened && popup.target === anchor) {
+          anchor.remove();
+          popup.target = popup.__popupPreviousTarget;
+          popup.__popupPreviousTarget = undefined;
+        }
+      });
+    }
+    if (popup.target !== anchor) {
+      popup.__popupPreviousTarget = popup.target;
+    }
+    anchor.style.left = `${x}px`;
+    anchor.style.top = `${y}px`;
+    anchor.style.width = `${width}px`;
+    anchor.style.height = `${height}px`;
+    if (!anchor.isConnected) {
+      document.body.appendChild(anchor);
+    }
+    popup.target = anchor;
+    popup.show();
+  },
+
+  /**
+   * Claims the opening of a popup for the given target. Returns false while a
+   * popup opened from the target is pending or open, so duplicate clicks are
+   * not sent to the server.
+   */
+  claimOpen(target) {
+    if (target.__popupOpenClaimed) {
+      return false;
+    }
+    target.__popupOpenClaimed = true;
+    return true;
+  },
+
+  /**
+   * Releases the claim of claimOpen, once the popup of the target is closed.
+   */
+  releaseOpen(target) {
+    target.__popupOpenClaimed = false;
+  },
+
+  /**
+   * Measures the popup while its `timingEnabled` property is set: the time
+   * from the user interaction that opened it until it is painted, and the
+   * time spent rendering its content. Samples of all popups are aggregated
+   * and sent as a `popup-timing` event of the popup being opened or closed
+   * at most every few seconds, together with its open changed event.
+   */
+  initTiming(popup) {
+    const overlay = popup.$.popupOverlay;
+    if (overlay.__popupTiming) {
+      return;
+    }
+    overlay.__popupTiming = true;
+    const requestContentUpdate = overlay.requestContentUpdate;
+    overlay.requestContentUpdate = function () {
+      if (!popup.timingEnabled || !overlay.opened) {
+        return requestContentUpdate.apply(this, arguments);
+      }
+      const start = performance.now();
+      const result = requestContentUpdate.apply(this, arguments);
+      recordTiming('render', performance.now() - start);
+      return result;
+    };
+    popup.addEventListener('popup-open-changed', () => {
+      if (!popup.timingEnabled) {
+        return;
+      }
+      if (popup.opened) {
+        const now = performance.now();
+        const start = now - lastInteraction < 1000 ? lastInteraction : now;
+        // the frame after the next animation frame has been painted
+        requestAnimationFrame(() => setTimeout(() => recordTiming('open', performance.now() - start)));
+      }
+      flushTimings(popup);
+    });
+  },
+
+  /**
+   * Installs a focus trap with a cached list of tabbable elements. While the
+   * `focusTrap` and `focusTrapCaching` properties of the popup are set, Tab
+   * and Shift+Tab move the focus using the list, which is only rebuilt after
+   * a `MutationObserver` has seen the content change, instead of searching
+   * the whole content on every key press.
+   */
+  initFocusTrap(popup) {
+    const overlay = popup.$.popupOverlay;
+    if (overlay.__popupFocusTrap) {
+      return;
+    }
+    const state = { tabbables: null };
+    overlay.__popupFocusTrap = state;
+    const observer = new MutationObserver(() => {
+      state.tabbables = null;
+    });
+    const observe = () => observer.observe(overlay, {
+      subtree: true,
+      childList: true,
+      attributes: true,
+      attributeFilter: ['disabled', 'tabindex', 'hidden', 'inert', 'style', 'class']
+    });
+    overlay.addEventListener('opened-changed', () => {
+      state.tabbables = null;
+      if (overlay.opened) {
+        observe();
+      } else {
+        observer.disconnect();
+      }
+    });
+    if (overlay.opened) {
+      observe();
+    }
+
+    // capture phase, so it runs before the focus trap of the overlay
+    overlay.addEventListener('keydown', (event) => {
+      if (event.key !== 'Tab' || !popup.focusTrap || !popup.focusTrapCaching || event.defaultPrevented) {
+        return;
+      }
+      if (!state.tabbables) {
+        state.tabbables = findTabbables(overlay);
+      }
+      const tabbables = state.tabbables;
+      if (tabbables.length === 0) {
+        return;
+      }
+      const active = getDeepActiveElement();
+      const index = tabbables.findIndex((element) => element === active || element.contains(active));
+      const step = event.shiftKey ? -1 : 1;
+      const next = index < 0 ? (event.shiftKey ? tabbables.length - 1 : 0)
+        : (index + step + tabbables.length) % tabbables.length;
+      event.preventDefault();
+      event.stopPropagation();
+      tabbables[next].focus();
+    }, true);
+  },
+
+  /**
+   * Closes the popup opened last within the root element of a UI.
+   */
+  closeTopmost(root) {
+    const stack = getStack(root);
+    if (stack.length > 0) {
+      stack[stack.length - 1].hide();
+    }
+  },
+
+  /**
+   * Closes all open popups within the root element of a UI, the topmost
+   * first.
+   */
+  closeAll(root) {
+    getStack(root).reverse().forEach((popup) => popup.hide());
+  },
+
+  /**
+   * Registers the markup of a PopupTemplate. Called once per template and UI.
+   */
+  registerTemplate(id, html) {
+    const template = document.createElement('template');
+    template.innerHTML = html;
+    templates[id] = template;
+  },
+
+  /**
+   * Renders a registered template into the popup overlay. Elements with a
+   * `data-bind` attribute get the text of the matching value, clicks on
+   * elements with a `data-action` attribute are reported to the server by
+   * the `popup-template-action` event.
+   */
+  renderTemplate(root, popup, id, values) {
+    const template = templates[id];
+    if (!template) {
+      console.warn(`Popup template "${id}" is not registered.`);
+      return;
+    }
+    root.textContent = '';
+    root.appendChild(template.content.cloneNode(true));
+    root.querySelectorAll('[data-bind]').forEach((element) => {
+      const value = values[element.dataset.bind];
+      element.textContent = value === undefined || value === null ? '' : value;
+    });
+    root.querySelectorAll('[data-action]').forEach((element) => {
+      element.addEventListener('click', () => {
+        popup.dispatchEvent(
+          new CustomEvent('popup-template-action', { detail: { action: element.dataset.action } })
+        );
+      });
+    });
+  }
+};
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2000-2023 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.componentfactory;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.vaadin.flow.component.ComponentUtil;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.html.Div;
+import com.vaadin.flow.component.html.Span;
+
+public class ActivatablePopupContentTest {
+
+    private TestSession session;
+    private UI ui;
+
+    @BeforeEach
+    public void setUp() {
+        session = TestSession.open();
+        ui = session.getUI();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        session.release();
+    }
+
+    @Test
+    public void contentIsActiveWhileOpen() {
+        Popup popup = new Popup();
+        ActivatableSpan content = new ActivatableSpan();
+        popup.add(content);
+        ui.add(popup);
+
+        setOpened(popup, true);
+        Assertions.assertTrue(content.active);
+        setOpened(popup, false);
+        Assertions.assertFalse(content.active);
+    }
+
+    @Test
+    public void contentAddedWhileOpenIsActivated() {
+        Popup popup = new Popup();
+        ui.add(popup);
+        setOpened(popup, true);
+
+        ActivatableSpan content = new ActivatableSpan();
+        Div wrapper = new Div(content);
+        popup.add(wrapper);
+        Assertions.assertTrue(content.active);
+
+        ActivatableSpan footerContent = new ActivatableSpan();
+        popup.getFooter().add(footerContent);
+        Assertions.assertTrue(footerContent.active);
+    }
+
+    @Test
+    public void openStateIsNotTrackedWithoutActivatableContent() {
+        Popup popup = new Popup();
+        int listeners = ComponentUtil
+                .getListeners(popup, Popup.PopupOpenChangedEvent.class).size();
+        popup.add(new Span());
+        Assertions.assertEquals(listeners, ComponentUtil
+                .getListeners(popup, Popup.PopupOpenChangedEvent.class).size());
+
+        popup.add(new ActivatableSpan());
+        Assertions.assertEquals(listeners + 1, ComponentUtil
+                .getListeners(popup, Popup.PopupOpenChangedEvent.class).size());
+    }
+
+    private static void setOpened(Popup popup, boolean opened) {
+        popup.setOpened(opened);
+        ComponentUtil.fireEvent(popup,
+                new Popup.PopupOpenChangedEvent(popup, true, opened));
+    }
+
+    private static class ActivatableSpan extends Span
+            implements ActivatablePopupContent {
+        private boolean active;
+
+        @Override
+        public void onPopupActivated(Popup popup) {
+            active = true;
+        }
+
+        @Override
+        public void onPopupDeactivated(Popup popup) {
+            active = false;
+        }
+    }
+}
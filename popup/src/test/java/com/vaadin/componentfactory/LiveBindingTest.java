@@ -0,0 +1,198 @@
+/*
+ * Copyright 2000-2023 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.componentfactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.vaadin.flow.component.ComponentUtil;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.server.VaadinSession;
+
+/**
+ * Checks the delivery of values pushed to a {@link LiveBinding}. The test
+ * thread keeps the session locked, so deliveries stay queued as access tasks
+ * until the test runs them.
+ */
+public class LiveBindingTest {
+
+    // static, so deserialized bindings deliver to the same list
+    private static final List<Integer> delivered = new CopyOnWriteArrayList<>();
+
+    private final TestService service = new TestService();
+    private TestSession session;
+    private Popup popup;
+
+    @BeforeEach
+    public void setUp() {
+        delivered.clear();
+        session = TestSession.open(service);
+        popup = new Popup();
+        session.getUI().add(popup);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        service.destroy();
+        session.release();
+    }
+
+    @Test
+    public void valuesPushedBetweenDeliveriesAreCoalesced() throws Exception {
+        setOpened(popup, true);
+        LiveBinding<Integer> binding = popup.bindLive(LiveBindingTest::deliver,
+                Duration.ZERO);
+
+        binding.push(1);
+        binding.push(2);
+        binding.push(3);
+        runDelivery(session);
+
+        Assertions.assertEquals(List.of(3), delivered);
+    }
+
+    @Test
+    public void deliveriesKeepTheMinimumInterval() throws Exception {
+        setOpened(popup, true);
+        LiveBinding<Integer> binding = popup.bindLive(LiveBindingTest::deliver,
+                Duration.ofHours(1));
+
+        binding.push(1);
+        runDelivery(session);
+        binding.push(2);
+        Thread.sleep(200);
+
+        Assertions.assertTrue(session.getPendingAccessQueue().isEmpty());
+        Assertions.assertEquals(List.of(1), delivered);
+    }
+
+    @Test
+    public void nothingIsDeliveredWhileClosed() throws Exception {
+        LiveBinding<Integer> binding = popup.bindLive(LiveBindingTest::deliver,
+                Duration.ZERO);
+
+        binding.push(1);
+        binding.push(2);
+        Thread.sleep(200);
+        Assertions.assertTrue(session.getPendingAccessQueue().isEmpty());
+        Assertions.assertTrue(delivered.isEmpty());
+
+        setOpened(popup, true);
+        Assertions.assertEquals(List.of(2), delivered);
+    }
+
+    @Test
+    public void deliveryIsScheduledAgainAfterDeserialization()
+            throws Exception {
+        setOpened(popup, true);
+        LiveBinding<Integer> binding = popup.bindLive(LiveBindingTest::deliver,
+                Duration.ZERO);
+        // scheduled, but not delivered when the session is serialized
+        binding.push(1);
+        awaitDelivery(session);
+
+        Object[] restoredObjects = serializeAndDeserialize(binding,
+                session.getUI());
+        @SuppressWarnings("unchecked")
+        LiveBinding<Integer> restored = (LiveBinding<Integer>) restoredObjects[0];
+        UI restoredUI = (UI) restoredObjects[1];
+        session.release();
+        session = TestSession.open(service);
+        restoredUI.getInternals().setSession(session);
+
+        restored.push(2);
+        runDelivery(session);
+
+        Assertions.assertEquals(List.of(2), delivered);
+    }
+
+    @Test
+    public void nothingIsScheduledOnceTheServiceIsDestroyed()
+            throws Exception {
+        setOpened(popup, true);
+        LiveBinding<Integer> binding = popup.bindLive(LiveBindingTest::deliver,
+                Duration.ZERO);
+        binding.push(1);
+        runDelivery(session);
+
+        service.destroy();
+        binding.push(2);
+        Thread.sleep(200);
+
+        Assertions.assertTrue(session.getPendingAccessQueue().isEmpty());
+        Assertions.assertEquals(List.of(1), delivered);
+    }
+
+    private static void deliver(Integer value) {
+        delivered.add(value);
+    }
+
+    private static void setOpened(Popup popup, boolean opened) {
+        popup.setOpened(opened);
+        ComponentUtil.fireEvent(popup,
+                new Popup.PopupOpenChangedEvent(popup, true, opened));
+    }
+
+    private static void awaitDelivery(VaadinSession session)
+            throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (session.getPendingAccessQueue().isEmpty()) {
+            Assertions.assertTrue(System.currentTimeMillis() < deadline,
+                    "No delivery was scheduled");
+            Thread.sleep(10);
+        }
+    }
+
+    private static void runDelivery(VaadinSession session)
+            throws InterruptedException {
+        awaitDelivery(session);
+        session.getService().runPendingAccessTasks(session);
+    }
+
+    // The session is left out: a session restored on another node gets a new
+    // lock and service, which the test session can't get
+    private static Object[] serializeAndDeserialize(Object... objects)
+            throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes) {
+            {
+                enableReplaceObject(true);
+            }
+
+            @Override
+            protected Object replaceObject(Object object) {
+                return object instanceof VaadinSession ? null : object;
+            }
+        }) {
+            out.writeObject(objects);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(
+                new ByteArrayInputStream(bytes.toByteArray()))) {
+            return (Object[]) in.readObject();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2000-2023 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.componentfactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.vaadin.flow.function.SerializableFunction;
+
+public class PopupContentCacheTest {
+
+    private final PopupContentCache cache = PopupContentCache.getInstance();
+    private final List<String> rendered = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        cache.clear();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        cache.clear();
+        cache.setMaximumSize(PopupContentCache.DEFAULT_MAXIMUM_SIZE);
+    }
+
+    @Test
+    public void contentIsRenderedOncePerKeyAndLocale() {
+        Assertions.assertEquals("<p>help en</p>",
+                cache.get("help", Locale.ENGLISH, renderer("help")));
+        Assertions.assertEquals("<p>help en</p>",
+                cache.get("help", Locale.ENGLISH, renderer("help")));
+        Assertions.assertEquals("<p>help de</p>",
+                cache.get("help", Locale.GERMAN, renderer("help")));
+
+        Assertions.assertEquals(List.of("help en", "help de"), rendered);
+        Assertions.assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void contentIsSanitized() {
+        Assertions.assertEquals("<p>help</p>", cache.get("unsafe",
+                Locale.ENGLISH,
+                locale -> "<p onclick=\"steal()\">help</p><script>steal()</script>"));
+    }
+
+    @Test
+    public void leastRecentlyUsedEntryIsEvicted() {
+        cache.setMaximumSize(2);
+        cache.get("first", Locale.ENGLISH, renderer("first"));
+        cache.get("second", Locale.ENGLISH, renderer("second"));
+        // makes "second" the least recently used entry
+        cache.get("first", Locale.ENGLISH, renderer("first"));
+
+        cache.get("third", Locale.ENGLISH, renderer("third"));
+        Assertions.assertEquals(2, cache.size());
+        rendered.clear();
+
+        cache.get("first", Locale.ENGLISH, renderer("first"));
+        cache.get("third", Locale.ENGLISH, renderer("third"));
+        Assertions.assertTrue(rendered.isEmpty());
+        cache.get("second", Locale.ENGLISH, renderer("second"));
+        Assertions.assertEquals(List.of("second en"), rendered);
+    }
+
+    @Test
+    public void reducingTheMaximumSizeEvictsTheLeastRecentlyUsedEntries() {
+        cache.get("first", Locale.ENGLISH, renderer("first"));
+        cache.get("second", Locale.ENGLISH, renderer("second"));
+        cache.get("third", Locale.ENGLISH, renderer("third"));
+        cache.get("first", Locale.ENGLISH, renderer("first"));
+
+        cache.setMaximumSize(1);
+        Assertions.assertEquals(1, cache.size());
+        rendered.clear();
+        cache.get("first", Locale.ENGLISH, renderer("first"));
+        Assertions.assertTrue(rendered.isEmpty());
+    }
+
+    @Test
+    public void invalidateRemovesAllLocalesOfTheKey() {
+        cache.get("help", Locale.ENGLISH, renderer("help"));
+        cache.get("help", Locale.GERMAN, renderer("help"));
+        cache.get("other", Locale.ENGLISH, renderer("other"));
+
+        cache.invalidate("help");
+        Assertions.assertEquals(1, cache.size());
+        rendered.clear();
+        cache.get("help", Locale.ENGLISH, renderer("help"));
+        Assertions.assertEquals(List.of("help en"), rendered);
+    }
+
+    private SerializableFunction<Locale, String> renderer(String key) {
+        return locale -> {
+            String text = key + " " + locale.getLanguage();
+            rendered.add(text);
+            return "<p>" + text + "</p>";
+        };
+    }
+}
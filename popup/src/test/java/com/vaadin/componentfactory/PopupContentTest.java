@@ -0,0 +1,120 @@
+/*
+ * Copyright 2000-2023 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.componentfactory;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.internal.PendingJavaScriptInvocation;
+import com.vaadin.flow.component.virtuallist.VirtualList;
+import com.vaadin.flow.data.provider.DataProvider;
+
+import elemental.json.Json;
+
+/**
+ * Checks that switching between the content types of a popup renders the
+ * content set last.
+ */
+public class PopupContentTest {
+
+    private static final PopupTemplate TEMPLATE = new PopupTemplate(
+            "<span data-bind=\"name\"></span>");
+
+    private TestSession session;
+    private UI ui;
+
+    @BeforeEach
+    public void setUp() {
+        session = TestSession.open();
+        ui = session.getUI();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        session.release();
+    }
+
+    @Test
+    public void virtualListReplacesHtmlContent() {
+        assertVirtualListReplaces(popup -> popup.setHtmlContent("<p>Help</p>"));
+    }
+
+    @Test
+    public void virtualListReplacesSharedContent() {
+        assertVirtualListReplaces(popup -> popup.setSharedContent(
+                "popup-content-test", locale -> "<p>Help</p>"));
+    }
+
+    @Test
+    public void virtualListReplacesTemplateContent() {
+        assertVirtualListReplaces(popup -> popup.setTemplateContent(TEMPLATE,
+                Json.createObject()));
+    }
+
+    @Test
+    public void htmlContentReplacesVirtualList() {
+        Popup popup = new Popup();
+        ui.add(popup);
+        popup.setVirtualListContent(
+                DataProvider.ofItems("First", "Second"), item -> item);
+        session.collectResponse();
+
+        popup.setHtmlContent("<p>Help</p>");
+        Assertions.assertEquals("<p>Help</p>",
+                getRenderedContent(session.collectResponse()));
+    }
+
+    private void assertVirtualListReplaces(Consumer<Popup> contentSetter) {
+        Popup popup = new Popup();
+        ui.add(popup);
+        contentSetter.accept(popup);
+        session.collectResponse();
+
+        VirtualList<String> list = popup.setVirtualListContent(
+                DataProvider.ofItems("First", "Second"), item -> item);
+
+        Assertions.assertNull(popup.getHtmlContent());
+        Assertions.assertNull(popup.getSharedContentKey());
+        Assertions.assertNull(popup.getContentTemplate());
+        Assertions.assertEquals(popup.getContainer(),
+                list.getElement().getParent());
+        String rendered = getRenderedContent(session.collectResponse());
+        Assertions.assertTrue(rendered.contains("flow-component-renderer"),
+                "The popup should render its components, but rendered "
+                        + rendered);
+    }
+
+    // the content of the last renderer set for the overlay
+    private static String getRenderedContent(
+            List<PendingJavaScriptInvocation> invocations) {
+        String rendered = null;
+        for (PendingJavaScriptInvocation invocation : invocations) {
+            if (invocation.getInvocation().getExpression()
+                    .contains("root.innerHTML")) {
+                rendered = (String) invocation.getInvocation().getParameters()
+                        .get(0);
+            }
+        }
+        Assertions.assertNotNull(rendered, "No renderer was set");
+        return rendered;
+    }
+}
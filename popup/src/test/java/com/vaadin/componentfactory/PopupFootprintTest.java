@@ -0,0 +1,137 @@
+/*
+ * Copyright 2000-2023 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.componentfactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.vaadin.flow.component.ComponentUtil;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.html.Span;
+
+/**
+ * Checks the footprint of popups: a popup without content components is a
+ * single state node, header and footer are only created when used, and a
+ * popup doesn't serialize larger than before the footprint was reduced.
+ */
+public class PopupFootprintTest {
+
+    // the serialized size of a popup holding one component before the
+    // footprint was reduced
+    private static final int BASELINE_SERIALIZED_POPUP_BYTES = 1260;
+    private static final int POPUP_COUNT = 100;
+
+    private TestSession session;
+    private UI ui;
+
+    @BeforeEach
+    public void setUp() {
+        session = TestSession.open();
+        ui = session.getUI();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        session.release();
+    }
+
+    @Test
+    public void bareAndHtmlPopupsAreSingleStateNodes() {
+        Popup bare = new Popup();
+        Popup html = new Popup();
+        html.setHtmlContent("<p>Help</p>");
+        Popup withContent = new Popup();
+        withContent.add(new Span());
+        ui.add(bare, html, withContent);
+
+        List<PopupDiagnostics.PopupInfo> popups = PopupDiagnostics
+                .snapshot(ui, Duration.ZERO).getPopups();
+
+        Assertions.assertEquals(1, popups.get(0).getStateNodeCount());
+        Assertions.assertEquals(1, popups.get(1).getStateNodeCount());
+        Assertions.assertEquals(3, popups.get(2).getStateNodeCount());
+    }
+
+    @Test
+    public void headerAndFooterAreCreatedWhenUsed() {
+        Popup bare = new Popup();
+        Popup withHeader = new Popup();
+        withHeader.getHeader().add(new Span());
+        ui.add(bare, withHeader);
+
+        List<PopupDiagnostics.PopupInfo> popups = PopupDiagnostics
+                .snapshot(ui, Duration.ZERO).getPopups();
+
+        Assertions.assertFalse(popups.get(0).isHeaderCreated());
+        Assertions.assertFalse(popups.get(0).isFooterCreated());
+        Assertions.assertTrue(popups.get(1).isHeaderCreated());
+        Assertions.assertEquals(1, popups.get(1).getHeaderChildCount());
+        Assertions.assertFalse(popups.get(1).isFooterCreated());
+    }
+
+    @Test
+    public void serializedPopupIsNotAboveBaseline() throws IOException {
+        ui.add(new Span());
+        session.collectResponse();
+        int empty = serializedSize(ui);
+        for (int i = 0; i < POPUP_COUNT; i++) {
+            Popup popup = new Popup();
+            popup.add(new Span("Popup " + i));
+            ui.add(popup);
+        }
+        session.collectResponse();
+        int perPopup = (serializedSize(ui) - empty) / POPUP_COUNT;
+
+        Assertions.assertTrue(perPopup <= BASELINE_SERIALIZED_POPUP_BYTES,
+                "A popup with one component serializes to " + perPopup
+                        + " bytes, above the baseline of "
+                        + BASELINE_SERIALIZED_POPUP_BYTES + " bytes");
+    }
+
+    @Test
+    public void openStateIsOnlyTrackedWhenUsed() {
+        Popup popup = new Popup();
+        ui.add(popup);
+        Assertions.assertEquals(0, openChangedListenerCount(popup));
+
+        PopupStack.get(ui);
+        Assertions.assertEquals(1, openChangedListenerCount(popup));
+        Popup attachedLater = new Popup();
+        ui.add(attachedLater);
+        Assertions.assertEquals(1, openChangedListenerCount(attachedLater));
+    }
+
+    private static int openChangedListenerCount(Popup popup) {
+        return ComponentUtil
+                .getListeners(popup, Popup.PopupOpenChangedEvent.class).size();
+    }
+
+    private static int serializedSize(UI ui) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(ui);
+        }
+        return bytes.size();
+    }
+}
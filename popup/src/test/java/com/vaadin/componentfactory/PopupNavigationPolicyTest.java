@@ -0,0 +1,124 @@
+/*
+ * Copyright 2000-2023 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.componentfactory;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.vaadin.flow.component.HasElement;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.html.Div;
+import com.vaadin.flow.component.html.Span;
+import com.vaadin.flow.router.AfterNavigationEvent;
+import com.vaadin.flow.router.Location;
+import com.vaadin.flow.router.LocationChangeEvent;
+import com.vaadin.flow.router.NavigationTrigger;
+import com.vaadin.flow.router.Router;
+import com.vaadin.flow.router.internal.AfterNavigationHandler;
+import com.vaadin.flow.server.SessionRouteRegistry;
+
+public class PopupNavigationPolicyTest {
+
+    private TestSession session;
+    private UI ui;
+    private Popup popup;
+
+    @BeforeEach
+    public void setUp() {
+        session = TestSession.open();
+        ui = session.getUI();
+        popup = new Popup();
+        popup.add(new Span("Content"));
+        popup.setOpened(true);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        session.release();
+    }
+
+    @Test
+    public void keptPopupStaysOpenAndAttached() {
+        ui.add(popup);
+        Assertions.assertEquals(PopupNavigationPolicy.KEEP,
+                popup.getNavigationPolicy());
+        Assertions.assertTrue(ui.getInternals()
+                .getListeners(AfterNavigationHandler.class).isEmpty());
+
+        navigate();
+
+        Assertions.assertTrue(popup.isOpened());
+        Assertions.assertEquals(ui, popup.getParent().orElse(null));
+        Assertions.assertEquals(1, popup.getContainer().getChildCount());
+    }
+
+    @Test
+    public void releasedPopupIsRemovedWithItsContent() {
+        popup.setNavigationPolicy(PopupNavigationPolicy.RELEASE);
+        ui.add(popup);
+        long released = Popup.getReleasedPopupCount();
+
+        navigate();
+
+        Assertions.assertFalse(popup.isOpened());
+        Assertions.assertFalse(popup.getParent().isPresent());
+        Assertions.assertEquals(0, popup.getContainer().getChildCount());
+        Assertions.assertEquals(released + 1, Popup.getReleasedPopupCount());
+        Assertions.assertTrue(ui.getInternals()
+                .getListeners(AfterNavigationHandler.class).isEmpty());
+    }
+
+    @Test
+    public void hiddenPopupIsClosedButKept() {
+        popup.setNavigationPolicy(PopupNavigationPolicy.HIDE);
+        ui.add(popup);
+
+        navigate();
+
+        Assertions.assertFalse(popup.isOpened());
+        Assertions.assertEquals(ui, popup.getParent().orElse(null));
+        Assertions.assertEquals(1, popup.getContainer().getChildCount());
+    }
+
+    @Test
+    public void popupWithinAShownLayoutIsNotReleased() {
+        Div layout = new Div(popup);
+        popup.setNavigationPolicy(PopupNavigationPolicy.RELEASE);
+        ui.add(layout);
+
+        navigate(new Div(), layout);
+
+        Assertions.assertTrue(popup.isOpened());
+        Assertions.assertEquals(layout, popup.getParent().orElse(null));
+    }
+
+    // notifies the after navigation listeners as if the user had navigated
+    // to another view, shown within the given chain of layouts
+    private void navigate(HasElement... activeChain) {
+        AfterNavigationEvent event = new AfterNavigationEvent(
+                new LocationChangeEvent(
+                        new Router(SessionRouteRegistry
+                                .getSessionRegistry(session)),
+                        ui, NavigationTrigger.PROGRAMMATIC,
+                        new Location("other"), Arrays.asList(activeChain)));
+        ui.getInternals().getListeners(AfterNavigationHandler.class)
+                .forEach(listener -> listener.afterNavigation(event));
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2000-2023 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.componentfactory;
+
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import com.vaadin.flow.server.PwaRegistry;
+import com.vaadin.flow.server.RouteRegistry;
+import com.vaadin.flow.server.VaadinContext;
+import com.vaadin.flow.server.VaadinRequest;
+import com.vaadin.flow.server.VaadinService;
+import com.vaadin.flow.server.VaadinSession;
+
+/**
+ * A service for tests which need one, e.g. for {@code UI.access}. It is not
+ * initialized and serves no requests; only its context and life cycle work.
+ */
+class TestService extends VaadinService {
+
+    @Override
+    protected VaadinContext constructVaadinContext() {
+        return new TestContext();
+    }
+
+    @Override
+    protected RouteRegistry getRouteRegistry() {
+        return null;
+    }
+
+    @Override
+    protected PwaRegistry getPwaRegistry() {
+        return null;
+    }
+
+    @Override
+    public String getContextRootRelativePath(VaadinRequest request) {
+        return "/";
+    }
+
+    @Override
+    public String getMimeType(String resourceName) {
+        return null;
+    }
+
+    @Override
+    protected boolean requestCanCreateSession(VaadinRequest request) {
+        return false;
+    }
+
+    @Override
+    public String getServiceName() {
+        return "test";
+    }
+
+    @Override
+    public String getMainDivId(VaadinSession session, VaadinRequest request) {
+        return "test";
+    }
+
+    @Override
+    public URL getStaticResource(String url) {
+        return null;
+    }
+
+    @Override
+    public URL getResource(String url) {
+        return null;
+    }
+
+    @Override
+    public InputStream getResourceAsStream(String url) {
+        return null;
+    }
+
+    @Override
+    public String resolveResource(String url) {
+        return url;
+    }
+
+    private static class TestContext implements VaadinContext {
+        private final Map<Class<?>, Object> attributes = new ConcurrentHashMap<>();
+
+        @Override
+        public <T> T getAttribute(Class<T> type, Supplier<T> defaultValueSupplier) {
+            return type.cast(attributes.computeIfAbsent(type,
+                    key -> defaultValueSupplier == null ? null
+                            : defaultValueSupplier.get()));
+        }
+
+        @Override
+        public <T> void setAttribute(Class<T> clazz, T value) {
+            attributes.put(clazz, value);
+        }
+
+        @Override
+        public void removeAttribute(Class<?> clazz) {
+            attributes.remove(clazz);
+        }
+
+        @Override
+        public Enumeration<String> getContextParameterNames() {
+            return Collections.emptyEnumeration();
+        }
+
+        @Override
+        public String getContextParameter(String name) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2000-2023 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.componentfactory;
+
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.internal.PendingJavaScriptInvocation;
+import com.vaadin.flow.internal.CurrentInstance;
+import com.vaadin.flow.internal.StateTree;
+import com.vaadin.flow.server.VaadinService;
+import com.vaadin.flow.server.VaadinSession;
+
+/**
+ * A session with a single UI for tests, not bound to a {@code VaadinService}
+ * unless one is given. It is locked by the current thread from
+ * {@link #open()} until {@link #release()}.
+ */
+class TestSession extends VaadinSession {
+
+    private final transient ReentrantLock lock = new ReentrantLock();
+    private final UI ui = new UI();
+
+    private TestSession(VaadinService service) {
+        super(service);
+    }
+
+    /**
+     * Creates a session, locks it and sets it and its UI as current.
+     *
+     * @return the session
+     */
+    static TestSession open() {
+        return open(null);
+    }
+
+    /**
+     * Creates a session bound to the given service, locks it and sets it and
+     * its UI as current.
+     *
+     * @param service the service, e.g. a {@link TestService}, or {@code null}
+     * @return the session
+     */
+    static TestSession open(VaadinService service) {
+        TestSession session = new TestSession(service);
+        session.lock.lock();
+        session.ui.getInternals().setSession(session);
+        VaadinSession.setCurrent(session);
+        UI.setCurrent(session.ui);
+        return session;
+    }
+
+    UI getUI() {
+        return ui;
+    }
+
+    /**
+     * Runs what the server does before responding to a request: the
+     * {@code beforeClientResponse} callbacks are run, and the state changes
+     * and JavaScript invocations are taken out to be sent.
+     *
+     * @return the JavaScript invocations sent to the client
+     */
+    List<PendingJavaScriptInvocation> collectResponse() {
+        StateTree stateTree = ui.getInternals().getStateTree();
+        stateTree.runExecutionsBeforeClientResponse();
+        stateTree.collectChanges(change -> {
+        });
+        return ui.getInternals().dumpPendingJavaScriptInvocations();
+    }
+
+    /**
+     * Clears the current instances and unlocks the session.
+     */
+    void release() {
+        CurrentInstance.clearAll();
+        lock.unlock();
+    }
+
+    @Override
+    public Lock getLockInstance() {
+        return lock;
+    }
+}